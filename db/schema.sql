@@ -35,14 +35,35 @@ CREATE TABLE folders (
     folder_order INT DEFAULT 0,
     is_system_folder BOOLEAN DEFAULT FALSE,
     owner_user_id BIGINT,
+    -- Messages in messages_archive, maintained by the archive job
+    archived_message_count INT NOT NULL DEFAULT 0,
+    archived_unread_count INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_folder_id (folder_id),
     INDEX idx_owner (owner_user_id),
     INDEX idx_type (folder_type),
+    INDEX idx_folder_updated (updated_at, id),
     FOREIGN KEY (owner_user_id) REFERENCES users(id) ON DELETE CASCADE
 ) ENGINE=InnoDB;
 
+-- Conversation threads (maintained during ingestion)
+CREATE TABLE message_threads (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    thread_key CHAR(64) NOT NULL,
+    subject VARCHAR(500),
+    participant_ids TEXT,
+    message_count INT NOT NULL DEFAULT 0,
+    unread_count INT NOT NULL DEFAULT 0,
+    first_message_date DATETIME NOT NULL,
+    last_message_date DATETIME NOT NULL,
+    last_message_id BIGINT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_thread_key (thread_key, last_message_date),
+    INDEX idx_thread_last_date (last_message_date)
+) ENGINE=InnoDB;
+
 -- Messages table
 CREATE TABLE messages (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -50,12 +71,14 @@ CREATE TABLE messages (
     folder_id BIGINT NOT NULL,
     subject VARCHAR(500),
     preview TEXT,
+    -- Legacy: bodies now live in message_bodies; cleared by the background migration
     body LONGTEXT,
     is_draft BOOLEAN DEFAULT FALSE,
     is_read BOOLEAN DEFAULT FALSE,
     is_replied BOOLEAN DEFAULT FALSE,
     can_reply BOOLEAN DEFAULT TRUE,
     author_user_id BIGINT NOT NULL,
+    thread_id BIGINT,
     message_date DATETIME NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
@@ -64,10 +87,59 @@ CREATE TABLE messages (
     INDEX idx_author (author_user_id),
     INDEX idx_date (message_date),
     INDEX idx_read (is_read),
+    INDEX idx_thread_date (thread_id, message_date),
+    INDEX idx_message_updated (updated_at, id),
+    FOREIGN KEY (folder_id) REFERENCES folders(id) ON DELETE CASCADE,
+    FOREIGN KEY (author_user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (thread_id) REFERENCES message_threads(id) ON DELETE SET NULL
+) ENGINE=InnoDB;
+
+-- Archived messages: messages older than ofw.archive.after-days, moved out of messages
+-- by MessageArchiver. Same columns and ids, so recipients, attachments and bodies stay keyed
+-- by message id in either table. Not partitioned: MySQL partitioned tables cannot take part
+-- in foreign keys.
+CREATE TABLE messages_archive (
+    id BIGINT PRIMARY KEY,
+    message_id BIGINT NOT NULL,
+    folder_id BIGINT NOT NULL,
+    subject VARCHAR(500),
+    preview TEXT,
+    is_draft BOOLEAN DEFAULT FALSE,
+    is_read BOOLEAN DEFAULT FALSE,
+    is_replied BOOLEAN DEFAULT FALSE,
+    can_reply BOOLEAN DEFAULT TRUE,
+    author_user_id BIGINT NOT NULL,
+    thread_id BIGINT,
+    message_date DATETIME NOT NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    UNIQUE KEY idx_archive_message_id (message_id),
+    INDEX idx_archive_folder_date (folder_id, message_date, id),
+    INDEX idx_archive_date (message_date, id),
+    INDEX idx_archive_thread_date (thread_id, message_date),
     FOREIGN KEY (folder_id) REFERENCES folders(id) ON DELETE CASCADE,
     FOREIGN KEY (author_user_id) REFERENCES users(id) ON DELETE CASCADE
 ) ENGINE=InnoDB;
 
+-- Message bodies (compressed, loaded only by the detail path)
+CREATE TABLE message_bodies (
+    -- No foreign key to messages: the message may be in messages_archive
+    message_id BIGINT PRIMARY KEY,
+    encoding VARCHAR(16) NOT NULL,
+    original_length INT NOT NULL,
+    content LONGBLOB NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
+
+-- Hard deletes, for delta sync clients
+CREATE TABLE sync_tombstones (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    deleted_at DATETIME NOT NULL,
+    INDEX idx_tombstone_deleted (deleted_at)
+) ENGINE=InnoDB;
+
 -- Message recipients table (many-to-many)
 CREATE TABLE message_recipients (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -75,9 +147,10 @@ CREATE TABLE message_recipients (
     recipient_user_id BIGINT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     INDEX idx_message (message_id),
-    INDEX idx_recipient (recipient_user_id),
+    -- Covering index for "messages sent to user X" (InnoDB would otherwise add only the PK)
+    INDEX idx_recipient_message (recipient_user_id, message_id),
     UNIQUE KEY unique_message_recipient (message_id, recipient_user_id),
-    FOREIGN KEY (message_id) REFERENCES messages(id) ON DELETE CASCADE,
+    -- message_id has no foreign key: it may point into messages_archive
     FOREIGN KEY (recipient_user_id) REFERENCES users(id) ON DELETE CASCADE
 ) ENGINE=InnoDB;
 
@@ -89,9 +162,11 @@ CREATE TABLE attachments (
     file_size BIGINT,
     content_type VARCHAR(100),
     file_path VARCHAR(500),
+    content_hash CHAR(64),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     INDEX idx_message (message_id),
-    FOREIGN KEY (message_id) REFERENCES messages(id) ON DELETE CASCADE
+    -- message_id has no foreign key: it may point into messages_archive
+    INDEX idx_attachment_content_hash (content_hash)
 ) ENGINE=InnoDB;
 
 -- Authentication tokens table
@@ -112,6 +187,7 @@ CREATE TABLE auth_tokens (
 CREATE TABLE upload_sessions (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     session_id VARCHAR(100) NOT NULL UNIQUE,
+    idempotency_key VARCHAR(100) UNIQUE,
     uploaded_by_user_id BIGINT,
     status VARCHAR(50) DEFAULT 'IN_PROGRESS',
     total_files INT DEFAULT 0,
@@ -120,6 +196,8 @@ CREATE TABLE upload_sessions (
     notes TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     completed_at TIMESTAMP NULL,
+    -- Renewed after every file; an IN_PROGRESS session without it for ofw.upload.lease-ms is abandoned
+    heartbeat_at TIMESTAMP NULL,
     INDEX idx_session_id (session_id),
     INDEX idx_status (status),
     FOREIGN KEY (uploaded_by_user_id) REFERENCES users(id) ON DELETE SET NULL
@@ -131,16 +209,35 @@ CREATE TABLE upload_files (
     session_id BIGINT NOT NULL,
     file_name VARCHAR(255) NOT NULL,
     file_type VARCHAR(50),
+    content_hash CHAR(64),
     status VARCHAR(50) DEFAULT 'PENDING',
     records_created INT DEFAULT 0,
+    dead_letter_count INT DEFAULT 0,
     error_message TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     processed_at TIMESTAMP NULL,
     INDEX idx_session (session_id),
     INDEX idx_status (status),
+    INDEX idx_content_hash (content_hash),
     FOREIGN KEY (session_id) REFERENCES upload_sessions(id) ON DELETE CASCADE
 ) ENGINE=InnoDB;
 
+-- Records of an uploaded file that failed to process, kept for replay
+CREATE TABLE upload_dead_letters (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    upload_file_id BIGINT NOT NULL,
+    record_offset INT NOT NULL,
+    error_message VARCHAR(1000),
+    attempts INT NOT NULL DEFAULT 1,
+    original_length INT NOT NULL,
+    -- Raw Deflate of the record's JSON
+    payload LONGBLOB NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_attempt_at TIMESTAMP NULL,
+    INDEX idx_dead_letter_file (upload_file_id, record_offset),
+    FOREIGN KEY (upload_file_id) REFERENCES upload_files(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
 -- Folder statistics (denormalized for performance)
 CREATE TABLE folder_statistics (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -152,6 +249,23 @@ CREATE TABLE folder_statistics (
     FOREIGN KEY (folder_id) REFERENCES folders(id) ON DELETE CASCADE
 ) ENGINE=InnoDB;
 
+-- Change log (cross-replica cache invalidation, written in the mutating transaction)
+CREATE TABLE change_log (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    change_type VARCHAR(20) NOT NULL,
+    origin VARCHAR(64),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_change_log_created (created_at)
+) ENGINE=InnoDB;
+
+-- Shard directory (sharded mode only, on shard 0): which shard holds each message
+CREATE TABLE shard_directory (
+    message_id BIGINT PRIMARY KEY,
+    shard INT NOT NULL
+) ENGINE=InnoDB;
+
 -- Insert default system folders
 INSERT INTO users (user_id, username, first_name, last_name, display_initials, avatar_color, user_type) 
 VALUES (0, 'system', 'System', 'User', 'SYS', '#000000', 'SYSTEM');
@@ -7,10 +7,29 @@ This script uploads JSON files from the debug directory to the OFW server.
 import requests
 import os
 import glob
+import hashlib
 import json
+import time
 from pathlib import Path
 
 
+MAX_ATTEMPTS = 3
+
+
+def idempotency_key(json_files):
+    """
+    Derive a stable Idempotency-Key from file names and contents, so retries and
+    re-runs over unchanged files are recognised by the server.
+    """
+    digest = hashlib.sha256()
+    for json_file in sorted(json_files):
+        digest.update(os.path.basename(json_file).encode('utf-8'))
+        with open(json_file, 'rb') as fh:
+            for chunk in iter(lambda: fh.read(1 << 16), b''):
+                digest.update(chunk)
+    return digest.hexdigest()
+
+
 def upload_debug_data(server_url="http://localhost:8080", 
                       debug_dir="debug",
                       user_id=None,
@@ -56,13 +75,33 @@ def upload_debug_data(server_url="http://localhost:8080",
     if notes:
         data['notes'] = notes
     
+    headers = {'Idempotency-Key': idempotency_key(json_files)}
+    
     print("-" * 70)
     print(f"Uploading to {endpoint}...")
     print()
     
     try:
-        # Upload files
-        response = requests.post(endpoint, files=files, data=data)
+        # Upload files, retrying on timeout with the same Idempotency-Key
+        for attempt in range(1, MAX_ATTEMPTS + 1):
+            for fh in file_handles:
+                fh.seek(0)
+            try:
+                response = requests.post(endpoint, files=files, data=data, headers=headers)
+            except requests.exceptions.Timeout:
+                if attempt == MAX_ATTEMPTS:
+                    raise
+                print(f"Timed out, retrying ({attempt}/{MAX_ATTEMPTS})...")
+                continue
+            if response.status_code == 429 and attempt < MAX_ATTEMPTS:
+                delay = int(response.headers.get('Retry-After', '5'))
+                print(f"Server busy, retrying in {delay}s ({attempt}/{MAX_ATTEMPTS})...")
+                time.sleep(delay)
+                continue
+            if response.status_code == 409 and attempt < MAX_ATTEMPTS:
+                print(f"Previous attempt still in progress, retrying ({attempt}/{MAX_ATTEMPTS})...")
+                continue
+            break
         
         # Close file handles
         for fh in file_handles:
@@ -77,6 +116,8 @@ def upload_debug_data(server_url="http://localhost:8080",
             print("=" * 70)
             print(f"Session ID: {result['sessionId']}")
             print(f"Status: {result['status']}")
+            if result.get('replayed'):
+                print("(stored result of an earlier upload with the same content)")
             print(f"Message: {result['message']}")
             print()
             print(f"Files processed: {result['filesProcessed']}")
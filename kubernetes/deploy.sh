@@ -89,6 +89,7 @@ deploy() {
     print_success "MySQL is ready"
     
     # Deploy OFW Server
+    kubectl apply -f 11-ofw-blobs-pvc.yaml
     kubectl apply -f 06-ofw-server-configmap.yaml
     kubectl apply -f 07-ofw-server-deployment.yaml
     kubectl apply -f 08-ofw-server-service.yaml
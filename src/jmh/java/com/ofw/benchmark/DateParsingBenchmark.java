@@ -0,0 +1,36 @@
+package com.ofw.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-message date parsing done by MessagesFileProcessor
+ * against the built-in ISO parser.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateParsingBenchmark {
+
+    /** Same pattern as MessagesFileProcessor.ISO_FORMATTER. */
+    private static final DateTimeFormatter PROCESSOR_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    public String dateTime = "2026-02-11T14:35:07";
+
+    @Benchmark
+    public LocalDateTime parseWithProcessorFormatter() {
+        return LocalDateTime.parse(dateTime, PROCESSOR_FORMATTER);
+    }
+
+    @Benchmark
+    public LocalDateTime parseWithIsoLocalDateTime() {
+        return LocalDateTime.parse(dateTime, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+}
@@ -0,0 +1,226 @@
+package com.ofw.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Builds realistic debug exports (messages.json / folders.json) in the shape
+ * MessagesFileProcessor and FoldersFileProcessor expect.
+ *
+ * Output is streamed through a JsonGenerator so the load-test generator can write
+ * millions of messages without holding them in memory. Deterministic for a given seed.
+ */
+public final class DebugDataFixtures {
+
+    private static final DateTimeFormatter ISO_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final DateTimeFormatter DISPLAY_DATE_FORMATTER =
+        DateTimeFormatter.ofPattern("M/d/yyyy");
+    private static final DateTimeFormatter DISPLAY_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("h:mm a");
+    private static final String[] FIRST_NAMES = {"Jane", "John", "Alex", "Sam", "Maria", "Chris"};
+    private static final String[] LAST_NAMES = {"Smith", "Doe", "Garcia", "Lee", "Brown", "Nguyen"};
+    private static final String[] SUBJECTS = {
+        "Doctor appointment", "School pickup schedule", "Summer vacation plans",
+        "Soccer practice", "Medical expenses", "Holiday exchange"
+    };
+    private static final String[][] SYSTEM_FOLDERS = {
+        {"1", "Inbox", "INBOX"},
+        {"2", "Action Items", "ACTION_ITEMS"},
+        {"3", "Notifications", "SYSTEM_MESSAGES"},
+        {"4", "Sent", "SENT"},
+        {"5", "Drafts", "DRAFTS"},
+        {"6", "Trash", "TRASH"}
+    };
+
+    /** First folder ID used for generated user folders. */
+    public static final long FIRST_USER_FOLDER_ID = 100L;
+    /** First user ID used for generated users. */
+    public static final long FIRST_USER_ID = 1001100L;
+
+    private DebugDataFixtures() {
+    }
+
+    /**
+     * Shape of a synthetic mailbox.
+     *
+     * @param userCount Number of distinct users (authors and recipients)
+     * @param userFolderCount Number of user folders in addition to the six system folders
+     */
+    public record MailboxShape(int userCount, int userFolderCount) {
+
+        public static final MailboxShape SMALL = new MailboxShape(40, 4);
+    }
+
+    /**
+     * Build a messages.json document as a tree.
+     *
+     * @param mapper ObjectMapper used to parse the generated bytes
+     * @param count Number of messages in the data array
+     * @param firstMessageId ID of the first message (subsequent IDs are sequential)
+     * @param seed Random seed
+     */
+    public static ObjectNode messagesDocument(ObjectMapper mapper, int count, long firstMessageId, long seed) {
+        try {
+            return (ObjectNode) mapper.readTree(messagesJson(mapper, count, firstMessageId, seed));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to build messages.json fixture", e);
+        }
+    }
+
+    /**
+     * Serialize a messages.json document to bytes.
+     */
+    public static byte[] messagesJson(ObjectMapper mapper, int count, long firstMessageId, long seed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 900);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            writeMessages(generator, MailboxShape.SMALL, count, firstMessageId, new Random(seed));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to build messages.json fixture", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Stream a complete messages.json document.
+     *
+     * Folder selection is skewed towards the Inbox and Sent folders, and roughly a third
+     * of subjects are replies, which mirrors real exports.
+     */
+    public static void writeMessages(JsonGenerator generator, MailboxShape shape, int count,
+                                     long firstMessageId, Random random) throws IOException {
+        LocalDateTime date = LocalDateTime.of(2026, 2, 12, 9, 0);
+
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("data");
+        for (int i = 0; i < count; i++) {
+            long messageId = firstMessageId + i;
+            // Spread dates over ~6 years, newest IDs first within each cycle
+            writeMessage(generator, shape, random, messageId, date.minusSeconds(97L * (messageId % 2_000_000L)));
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("page", 0);
+        generator.writeNumberField("size", count);
+        generator.writeNumberField("totalElements", count);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Stream a complete folders.json document.
+     */
+    public static void writeFolders(JsonGenerator generator, MailboxShape shape) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeArrayFieldStart("systemFolders");
+        for (String[] folder : SYSTEM_FOLDERS) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", Long.parseLong(folder[0]));
+            generator.writeStringField("name", folder[1]);
+            generator.writeStringField("folderType", folder[2]);
+            generator.writeNumberField("folderOrder", Integer.parseInt(folder[0]));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("userFolders");
+        for (int i = 0; i < shape.userFolderCount(); i++) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", FIRST_USER_FOLDER_ID + i);
+            generator.writeStringField("name", "Folder " + (i + 1));
+            generator.writeStringField("folderType", "USER");
+            generator.writeNumberField("folderOrder", 10 + i);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * Pick a folder ID with a realistic skew: ~60% Inbox, ~20% Sent, rest spread over
+     * the other system and user folders.
+     */
+    public static long pickFolderId(MailboxShape shape, Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 60) return 1L;
+        if (roll < 80) return 4L;
+        if (shape.userFolderCount() > 0 && roll < 95) {
+            return FIRST_USER_FOLDER_ID + random.nextInt(shape.userFolderCount());
+        }
+        return 2L + random.nextInt(2);
+    }
+
+    private static String body(String subject, Random random) {
+        StringBuilder body = new StringBuilder("Hi, following up on ").append(subject.toLowerCase())
+            .append(". Please confirm the details when you get a chance.");
+        int paragraphs = 1 + random.nextInt(4);
+        for (int i = 0; i < paragraphs; i++) {
+            body.append("\n\nAs discussed, the schedule for the next two weeks stays the same unless either of us")
+                .append(" sends a change request. Pick-up is at 5pm on Friday and drop-off at school on Monday.")
+                .append(" Let me know if anything about ").append(subject.toLowerCase()).append(" needs to change.");
+        }
+        return body.toString();
+    }
+
+    private static void writeMessage(JsonGenerator generator, MailboxShape shape, Random random,
+                                     long messageId, LocalDateTime date) throws IOException {
+        String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+
+        generator.writeStartObject();
+        generator.writeNumberField("id", messageId);
+        generator.writeNumberField("folder", pickFolderId(shape, random));
+        generator.writeStringField("subject", random.nextInt(3) == 0 ? "Re: " + subject : subject);
+        generator.writeStringField("preview", "Hi, following up on " + subject.toLowerCase()
+            + ". Please confirm the details when you get a chance...");
+        generator.writeStringField("body", body(subject, random));
+        generator.writeNumberField("files", random.nextInt(3));
+        generator.writeBooleanField("read", random.nextBoolean());
+        generator.writeBooleanField("replied", random.nextBoolean());
+        generator.writeBooleanField("draft", false);
+        generator.writeBooleanField("canReply", true);
+
+        generator.writeFieldName("author");
+        writeUser(generator, FIRST_USER_ID + random.nextInt(shape.userCount()));
+
+        generator.writeObjectFieldStart("date");
+        generator.writeStringField("displayDate", date.format(DISPLAY_DATE_FORMATTER));
+        generator.writeStringField("displayTime", date.format(DISPLAY_TIME_FORMATTER));
+        generator.writeStringField("dateTime", date.format(ISO_FORMATTER));
+        generator.writeEndObject();
+
+        generator.writeArrayFieldStart("recipients");
+        int recipientCount = 1 + random.nextInt(3);
+        for (int r = 0; r < recipientCount; r++) {
+            generator.writeStartObject();
+            generator.writeFieldName("user");
+            writeUser(generator, FIRST_USER_ID + random.nextInt(shape.userCount()));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+    }
+
+    private static void writeUser(JsonGenerator generator, long userId) throws IOException {
+        String firstName = FIRST_NAMES[(int) (userId % FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[(int) ((userId / 7) % LAST_NAMES.length)];
+
+        generator.writeStartObject();
+        generator.writeNumberField("userId", userId);
+        generator.writeStringField("name", firstName + " " + lastName + " " + userId);
+        generator.writeStringField("firstName", firstName);
+        generator.writeStringField("lastName", lastName);
+        generator.writeStringField("displayInitials", "" + firstName.charAt(0) + lastName.charAt(0));
+        generator.writeBooleanField("active", true);
+        generator.writeStringField("type", "PARENT");
+        generator.writeStringField("color", "#33C4FF");
+        generator.writeEndObject();
+    }
+}
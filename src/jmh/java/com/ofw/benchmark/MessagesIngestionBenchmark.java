@@ -0,0 +1,91 @@
+package com.ofw.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ofw.OfwServerApplication;
+import com.ofw.model.entity.UploadFile;
+import com.ofw.service.processor.MessagesFileProcessor;
+import com.ofw.service.upload.SpooledUpload;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end MessagesFileProcessor.process() against an embedded H2 database (MySQL mode).
+ * Each invocation ingests a fresh batch of message IDs so nothing is skipped as a duplicate.
+ * The payload is read from a file on disk, as uploads are after spooling.
+ *
+ * parallelParse compares streaming with range parsing (ofw.upload.parallel-parse) at every
+ * file size; run it on the production core count before enabling range parsing there.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessagesIngestionBenchmark {
+
+    @Param({"500", "5000"})
+    public int messageCount;
+
+    @Param({"false", "true"})
+    public boolean parallelParse;
+
+    private ConfigurableApplicationContext context;
+    private MessagesFileProcessor processor;
+    private ObjectMapper objectMapper;
+    private long nextMessageId = 1_000_000L;
+    private Path payload;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        // DevTools would otherwise restart the context and re-invoke main() without arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        context = new SpringApplicationBuilder(OfwServerApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:ofw_bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "ofw.upload.parallel-parse.enabled=" + parallelParse,
+                "ofw.upload.parallel-parse.min-bytes=0",
+                "ofw.upload.parallel-parse.range-bytes=262144",
+                "logging.level.com.ofw=WARN")
+            .run();
+
+        processor = context.getBean(MessagesFileProcessor.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextPayload() throws IOException {
+        payload = Files.createTempFile("ofw-bench-", ".json");
+        Files.write(payload, DebugDataFixtures.messagesJson(objectMapper, messageCount, nextMessageId, nextMessageId));
+        nextMessageId += messageCount;
+    }
+    
+    @TearDown(Level.Invocation)
+    public void deletePayload() throws IOException {
+        Files.deleteIfExists(payload);
+    }
+
+    @Benchmark
+    public Integer process() throws Exception {
+        // Runs outside a transaction, as in UploadService: the processor commits its batches
+        return processor.process("messages.json", SpooledUpload.open(payload), new UploadFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ofw.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a whole messages.json into one tree (current UploadService behaviour)
+ * with streaming over the data array and materializing one message node at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class MessagesJsonParsingBenchmark {
+
+    @Param({"100", "10000"})
+    public int messageCount;
+
+    private ObjectMapper objectMapper;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        payload = DebugDataFixtures.messagesJson(objectMapper, messageCount, 1_000_000L, 42L);
+    }
+
+    @Benchmark
+    public void treeParse(Blackhole blackhole) throws IOException {
+        JsonNode root = objectMapper.readTree(payload);
+        for (JsonNode msgNode : root.get("data")) {
+            consume(msgNode, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void streamingParse(Blackhole blackhole) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Expected JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consume(objectMapper.readTree(parser), blackhole);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void consume(JsonNode msgNode, Blackhole blackhole) {
+        blackhole.consume(msgNode.get("id").asLong());
+        blackhole.consume(msgNode.get("subject").asText());
+        blackhole.consume(msgNode.get("date").get("dateTime").asText());
+        blackhole.consume(msgNode.get("author").get("userId").asLong());
+    }
+}
@@ -0,0 +1,126 @@
+package com.ofw.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ofw.OfwServerApplication;
+import com.ofw.config.BinaryEncodingConfig;
+import com.ofw.model.dto.MessageListItemDTO;
+import com.ofw.model.dto.MessagesResponseDTO;
+import com.ofw.model.entity.Attachment;
+import com.ofw.model.entity.Folder;
+import com.ofw.model.entity.Message;
+import com.ofw.model.entity.User;
+import com.ofw.service.mapper.EntityMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a GET /pub/v3/messages page as JSON, Smile and CBOR, with the
+ * mappers the server uses for each Accept type. Payload sizes are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseEncodingBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"100"})
+    public int pageSize;
+
+    private ObjectMapper mapper;
+    private MessagesResponseDTO page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper json = new OfwServerApplication().objectMapper();
+        mapper = switch (format) {
+            case "smile" -> BinaryEncodingConfig.smileMapper(json);
+            case "cbor" -> BinaryEncodingConfig.cborMapper(json);
+            default -> json;
+        };
+        page = page(pageSize, 42L);
+        encoded = mapper.writeValueAsBytes(page);
+
+        int jsonLength = json.writeValueAsBytes(page).length;
+        System.out.printf("%n%s payload: %d bytes for %d messages (%.0f%% of JSON)%n",
+            format, encoded.length, pageSize, 100.0 * encoded.length / jsonLength);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public MessagesResponseDTO decode() throws IOException {
+        return mapper.readValue(encoded, MessagesResponseDTO.class);
+    }
+
+    /**
+     * A list page as the message endpoint builds it: entities through EntityMapper.
+     */
+    static MessagesResponseDTO page(int size, long seed) {
+        Random random = new Random(seed);
+        EntityMapper entityMapper = new EntityMapper();
+        Folder inbox = Folder.builder().id(1L).folderId(1L).name("Inbox").folderType("INBOX").build();
+        List<String> subjects = List.of("Doctor appointment", "School pickup on Friday",
+            "Holiday schedule", "Re: Soccer practice", "Expense reimbursement for camp");
+
+        List<MessageListItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String subject = subjects.get(random.nextInt(subjects.size()));
+            Message message = Message.builder()
+                .id((long) i)
+                .messageId(1_000_000L + i)
+                .folder(inbox)
+                .subject(subject)
+                .preview(subject + " - please see the details below and let me know if that works for you.")
+                .isDraft(false)
+                .isRead(random.nextBoolean())
+                .isReplied(random.nextBoolean())
+                .canReply(true)
+                .author(user(1001100L + random.nextInt(4)))
+                .messageDate(LocalDateTime.of(2026, 1, 1, 8, 0).plusMinutes(random.nextInt(500_000)))
+                .build();
+            message.addRecipient(user(1001200L + random.nextInt(4)));
+            if (random.nextInt(4) == 0) {
+                message.addAttachment(Attachment.builder().id((long) i).fileName("document.pdf")
+                    .fileSize(123456L).contentType("application/pdf").build());
+            }
+            items.add(entityMapper.toMessageListItemDTO(message));
+        }
+
+        return MessagesResponseDTO.builder()
+            .data(items)
+            .page(0)
+            .size(size)
+            .totalElements(5_000L)
+            .totalPages((5_000 + size - 1) / size)
+            .build();
+    }
+
+    private static User user(long userId) {
+        return User.builder()
+            .id(userId)
+            .userId(userId)
+            .username("user" + userId)
+            .firstName("Jane")
+            .lastName("Smith")
+            .displayInitials("JS")
+            .avatarColor("#FF5733")
+            .isActive(true)
+            .userType("PARENT")
+            .build();
+    }
+}
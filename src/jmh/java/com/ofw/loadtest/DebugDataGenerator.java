@@ -0,0 +1,104 @@
+package com.ofw.loadtest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ofw.benchmark.DebugDataFixtures;
+import com.ofw.benchmark.DebugDataFixtures.MailboxShape;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic debug exports at production scale.
+ *
+ * Writes one folders.json and as many messages_NNNN.json files as needed, each small
+ * enough to pass the multipart size limit. Files are streamed, so memory use is constant.
+ *
+ * Usage:
+ *   mvn -Pbenchmark test-compile exec:exec@generate \
+ *     -Dgenerator.args="--out target/debug-data --messages 2000000 --users 500 --folders 40"
+ */
+public class DebugDataGenerator {
+
+    private final Path outDir;
+    private final MailboxShape shape;
+    private final long messageCount;
+    private final int messagesPerFile;
+    private final long firstMessageId;
+    private final long seed;
+
+    public DebugDataGenerator(Path outDir, MailboxShape shape, long messageCount,
+                              int messagesPerFile, long firstMessageId, long seed) {
+        this.outDir = outDir;
+        this.shape = shape;
+        this.messageCount = messageCount;
+        this.messagesPerFile = messagesPerFile;
+        this.firstMessageId = firstMessageId;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+
+        DebugDataGenerator generator = new DebugDataGenerator(
+            Path.of(options.get("out", "target/debug-data")),
+            new MailboxShape(options.getInt("users", 200), options.getInt("folders", 20)),
+            options.getLong("messages", 100_000),
+            options.getInt("messages-per-file", 20_000),
+            options.getLong("first-message-id", 1_000_000L),
+            options.getLong("seed", 42L));
+
+        long start = System.nanoTime();
+        List<Path> files = generator.generate();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        long bytes = 0;
+        for (Path file : files) {
+            bytes += Files.size(file);
+        }
+        System.out.printf("Generated %d files (%,d bytes) in %d ms under %s%n",
+            files.size(), bytes, elapsedMs, generator.outDir.toAbsolutePath());
+    }
+
+    /**
+     * Write folders.json followed by the messages files.
+     *
+     * @return Paths written, folders.json first
+     */
+    public List<Path> generate() throws IOException {
+        Files.createDirectories(outDir);
+        JsonFactory factory = new JsonFactory();
+        List<Path> files = new ArrayList<>();
+
+        Path foldersFile = outDir.resolve("folders.json");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(foldersFile));
+             JsonGenerator generator = factory.createGenerator(out)) {
+            DebugDataFixtures.writeFolders(generator, shape);
+        }
+        files.add(foldersFile);
+
+        Random random = new Random(seed);
+        long written = 0;
+        int fileIndex = 1;
+        while (written < messageCount) {
+            int count = (int) Math.min(messagesPerFile, messageCount - written);
+            Path messagesFile = outDir.resolve(String.format("messages_%04d.json", fileIndex++));
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(messagesFile), 1 << 16);
+                 JsonGenerator generator = factory.createGenerator(out)) {
+                DebugDataFixtures.writeMessages(generator, shape, count, firstMessageId + written, random);
+            }
+
+            files.add(messagesFile);
+            written += count;
+        }
+
+        return files;
+    }
+}
@@ -0,0 +1,452 @@
+package com.ofw.loadtest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ofw.OfwServerApplication;
+import com.ofw.benchmark.DebugDataFixtures;
+import com.ofw.benchmark.DebugDataFixtures.MailboxShape;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load harness.
+ *
+ * Starts the server in-process on a random port with an embedded H2 database (unless --url
+ * points at a running server), seeds it with synthetic debug exports through the upload
+ * endpoint, then drives a weighted mix of list / detail / folder-count / mark-read / upload
+ * traffic and reports throughput and latency percentiles per operation.
+ *
+ * Usage:
+ *   mvn -Pbenchmark test-compile exec:exec@loadtest \
+ *     -Dloadtest.args="--threads 32 --duration 60 --seed-messages 200000 \
+ *                      --mix list=60,detail=20,folders=10,read=8,upload=2"
+ *
+ * Options:
+ *   --url URL              Target an already running server instead of starting one
+ *   --h2-url JDBC_URL      Embedded database URL (default: in-memory H2 in MySQL mode)
+ *   --seed-messages N      Messages to upload before the run (default 20000, 0 to skip)
+ *   --data DIR             Upload pre-generated files from DIR instead of generating a seed
+ *   --shards N             Run the embedded server sharded over N in-memory databases (default 1)
+ *   --families N           Spread the seed over N family accounts and send each request for one
+ *                          of them (ofw-user-id header, userId upload field); default 1, or 8 with --shards
+ *   --threads N            Concurrent client threads (default 16)
+ *   --duration SECONDS     Measured run length (default 60)
+ *   --warmup SECONDS       Unmeasured warmup (default 10)
+ *   --mix SPEC             Operation weights (default list=60,detail=20,folders=10,read=8,upload=2)
+ *   --out FILE             JSON report path (default target/loadtest-result.json)
+ */
+public class LoadHarness {
+
+    enum Operation { LIST, DETAIL, FOLDERS, READ, UPLOAD }
+
+    static final long FIRST_MESSAGE_ID = 1_000_000L;
+    static final long FIRST_FAMILY_USER_ID = 1_011_000L;
+    private static final int UPLOAD_BATCH_MESSAGES = 50;
+    private static final int SEED_MESSAGES_PER_FILE = 20_000;
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final MailboxShape shape = new MailboxShape(200, 20);
+    private final AtomicLong nextUploadMessageId;
+    private final long seededMessages;
+    private final int families;
+    // Name the family account on every request, as a sharded server requires
+    private final boolean routeByUser;
+
+    LoadHarness(String baseUrl, long seededMessages) {
+        this(baseUrl, seededMessages, 1, false);
+    }
+
+    LoadHarness(String baseUrl, long seededMessages, int families, boolean routeByUser) {
+        this.baseUrl = baseUrl;
+        this.families = Math.max(1, families);
+        this.routeByUser = routeByUser;
+        // Messages per family; family f holds the IDs from FIRST_MESSAGE_ID + f * seededMessages
+        this.seededMessages = Math.max(1, seededMessages / this.families);
+        this.nextUploadMessageId = new AtomicLong(FIRST_MESSAGE_ID + seededMessages + 1_000_000_000L);
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        ConfigurableApplicationContext context = null;
+
+        String baseUrl = options.get("url", null);
+        int shards = options.getInt("shards", 1);
+        if (baseUrl == null) {
+            context = startEmbeddedServer(options.get("h2-url",
+                "jdbc:h2:mem:ofw_load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"), shards);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            long seedMessages = options.getLong("seed-messages", 20_000);
+            LoadHarness harness = new LoadHarness(baseUrl, seedMessages,
+                options.getInt("families", shards > 1 ? 8 : 1), shards > 1 || options.has("families"));
+
+            if (options.has("data")) {
+                harness.seedFrom(Path.of(options.get("data", null)));
+            } else if (seedMessages > 0) {
+                harness.seed(seedMessages);
+            }
+
+            Map<Operation, Integer> mix = parseMix(options.get("mix", "list=60,detail=20,folders=10,read=8,upload=2"));
+            int threads = options.getInt("threads", 16);
+
+            System.out.printf("Warming up for %ds...%n", options.getInt("warmup", 10));
+            harness.run(mix, threads, options.getInt("warmup", 10));
+
+            System.out.printf("Running %s with %d threads for %ds against %s%n",
+                mix, threads, options.getInt("duration", 60), baseUrl);
+            Report report = harness.run(mix, threads, options.getInt("duration", 60));
+
+            report.print();
+            report.write(Path.of(options.get("out", "target/loadtest-result.json")));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Start the application with an embedded database on a random port.
+     */
+    static ConfigurableApplicationContext startEmbeddedServer(String jdbcUrl) {
+        return startEmbeddedServer(jdbcUrl, 1);
+    }
+
+    /**
+     * Start the application on a random port, sharded over the given number of embedded
+     * databases (named after jdbcUrl's database with a _N suffix) if more than one.
+     */
+    static ConfigurableApplicationContext startEmbeddedServer(String jdbcUrl, int shards) {
+        // DevTools would otherwise restart the context and re-invoke main() without arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> shardUrls = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            int options = jdbcUrl.indexOf(';');
+            shardUrls.add(options < 0 ? jdbcUrl + "_" + i
+                : jdbcUrl.substring(0, options) + "_" + i + jdbcUrl.substring(options));
+        }
+        return new SpringApplicationBuilder(OfwServerApplication.class)
+            .properties(
+                "ofw.sharding.enabled=" + (shards > 1),
+                "ofw.sharding.urls=" + String.join(",", shardUrls),
+                "server.port=0",
+                "spring.datasource.url=" + jdbcUrl,
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.servlet.multipart.max-file-size=50MB",
+                "spring.servlet.multipart.max-request-size=100MB",
+                "logging.level.com.ofw=WARN")
+            .run();
+    }
+
+    /**
+     * Generate and upload a synthetic mailbox of the given size, split evenly over the families.
+     */
+    void seed(long messageCount) throws Exception {
+        for (int family = 0; family < families; family++) {
+            Path dir = Files.createTempDirectory("ofw-loadtest");
+            try {
+                List<Path> files = new DebugDataGenerator(dir, shape, seededMessages, SEED_MESSAGES_PER_FILE,
+                    FIRST_MESSAGE_ID + family * seededMessages, 42L + family).generate();
+                upload(files, family);
+            } finally {
+                try (Stream<Path> paths = Files.list(dir)) {
+                    for (Path path : (Iterable<Path>) paths::iterator) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+                Files.deleteIfExists(dir);
+            }
+        }
+    }
+
+    /**
+     * Upload pre-generated files (folders.json first so folders exist before messages).
+     */
+    void seedFrom(Path dir) throws Exception {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(dir)) {
+            files = paths.filter(p -> p.toString().endsWith(".json")).sorted((a, b) -> {
+                boolean aFolders = a.getFileName().toString().contains("folders");
+                boolean bFolders = b.getFileName().toString().contains("folders");
+                return aFolders == bFolders ? a.compareTo(b) : (aFolders ? -1 : 1);
+            }).toList();
+        }
+        upload(files, 0);
+    }
+
+    private void upload(List<Path> files, int family) throws Exception {
+        long start = System.nanoTime();
+        for (Path file : files) {
+            HttpResponse<String> response = client.send(multipart(
+                file.getFileName().toString(), HttpRequest.BodyPublishers.ofFile(file), family),
+                HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seed upload of " + file + " failed: "
+                    + response.statusCode() + " " + response.body());
+            }
+            System.out.printf("Seeded %s%n", file.getFileName());
+        }
+        System.out.printf("Seeding took %d ms%n", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Drive the traffic mix for the given duration.
+     */
+    Report run(Map<Operation, Integer> mix, int threads, int durationSeconds) throws InterruptedException {
+        Operation[] weighted = mix.entrySet().stream()
+            .flatMap(e -> Stream.generate(e::getKey).limit(e.getValue()))
+            .toArray(Operation[]::new);
+
+        List<Recorder> recorders = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long start = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Operation op = weighted[random.nextInt(weighted.length)];
+                    long opStart = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = execute(op, random);
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    recorder.record(op, System.nanoTime() - opStart, ok);
+                }
+            });
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+        return new Report(recorders, System.nanoTime() - start);
+    }
+
+    private boolean execute(Operation op, Random random) throws Exception {
+        int family = random.nextInt(families);
+        HttpRequest request = switch (op) {
+            case LIST -> get("/pub/v3/messages?folder=" + DebugDataFixtures.pickFolderId(shape, random)
+                + "&page=" + (random.nextInt(10) < 8 ? 0 : random.nextInt(5)) + "&size=25", family);
+            case DETAIL -> get("/pub/v3/messages/" + randomMessageId(random, family), family);
+            case FOLDERS -> get("/pub/v1/messageFolders?includeFolderCounts=true", family);
+            case READ -> request("/pub/v3/messages/" + randomMessageId(random, family) + "/read", family)
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+            case UPLOAD -> multipart("messages_load.json",
+                HttpRequest.BodyPublishers.ofByteArray(uploadBatch(random)), family);
+        };
+
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        return status >= 200 && status < 300;
+    }
+
+    private long randomMessageId(Random random, int family) {
+        return FIRST_MESSAGE_ID + family * seededMessages + (long) (random.nextDouble() * seededMessages);
+    }
+
+    private byte[] uploadBatch(Random random) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(UPLOAD_BATCH_MESSAGES * 900);
+        try (JsonGenerator generator = new JsonFactory().createGenerator(out)) {
+            long firstId = nextUploadMessageId.getAndAdd(UPLOAD_BATCH_MESSAGES);
+            DebugDataFixtures.writeMessages(generator, shape, UPLOAD_BATCH_MESSAGES, firstId, random);
+        }
+        return out.toByteArray();
+    }
+
+    private HttpRequest get(String path, int family) {
+        return request(path, family).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path, int family) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        return routeByUser ? builder.header("ofw-user-id", String.valueOf(FIRST_FAMILY_USER_ID + family)) : builder;
+    }
+
+    private HttpRequest multipart(String fileName, HttpRequest.BodyPublisher content, int family) {
+        String boundary = "ofw-" + UUID.randomUUID();
+        String head = (routeByUser
+                ? "--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"userId\"\r\n\r\n"
+                    + (FIRST_FAMILY_USER_ID + family) + "\r\n"
+                : "")
+            + "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"files\"; filename=\"" + fileName + "\"\r\n"
+            + "Content-Type: application/json\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/upload/debug"))
+            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+            .timeout(Duration.ofMinutes(10))
+            .POST(HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8),
+                content,
+                HttpRequest.BodyPublishers.ofString(tail, StandardCharsets.UTF_8)))
+            .build();
+    }
+
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(kv[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix has no positive weights: " + spec);
+        }
+        return mix;
+    }
+
+    /**
+     * Per-thread latency samples, merged once at the end of the run.
+     */
+    static final class Recorder {
+
+        private final Map<Operation, long[]> samples = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+        void record(Operation op, long nanos, boolean ok) {
+            int count = counts.getOrDefault(op, 0);
+            long[] values = samples.computeIfAbsent(op, k -> new long[1024]);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+                samples.put(op, values);
+            }
+            values[count] = nanos;
+            counts.put(op, count + 1);
+            if (!ok) {
+                errors.merge(op, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Aggregated results of one run.
+     */
+    static final class Report {
+
+        private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+        private final ObjectNode json = new ObjectMapper().createObjectNode();
+        private final List<String> lines = new ArrayList<>();
+
+        Report(List<Recorder> recorders, long elapsedNanos) {
+            double seconds = elapsedNanos / 1e9;
+            long totalCount = 0;
+            long totalErrors = 0;
+            ArrayNode operations = json.putArray("operations");
+
+            lines.add(String.format("%-8s %10s %8s %10s %9s %9s %9s %9s %9s",
+                "op", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+            for (Operation op : Operation.values()) {
+                int count = 0;
+                int errors = 0;
+                for (Recorder recorder : recorders) {
+                    count += recorder.counts.getOrDefault(op, 0);
+                    errors += recorder.errors.getOrDefault(op, 0);
+                }
+                if (count == 0) {
+                    continue;
+                }
+
+                long[] merged = new long[count];
+                int offset = 0;
+                for (Recorder recorder : recorders) {
+                    int n = recorder.counts.getOrDefault(op, 0);
+                    if (n > 0) {
+                        System.arraycopy(recorder.samples.get(op), 0, merged, offset, n);
+                        offset += n;
+                    }
+                }
+                Arrays.sort(merged);
+
+                ObjectNode node = operations.addObject();
+                node.put("operation", op.name().toLowerCase());
+                node.put("count", count);
+                node.put("errors", errors);
+                node.put("throughput", count / seconds);
+                StringBuilder line = new StringBuilder(String.format("%-8s %10d %8d %10.1f",
+                    op.name().toLowerCase(), count, errors, count / seconds));
+                for (double p : PERCENTILES) {
+                    double ms = percentile(merged, p) / 1e6;
+                    node.put("p" + (p == Math.floor(p) ? String.valueOf((int) p) : String.valueOf(p)) + "Ms", ms);
+                    line.append(String.format(" %9.2f", ms));
+                }
+                node.put("maxMs", merged[merged.length - 1] / 1e6);
+                line.append(String.format(" %9.2f", merged[merged.length - 1] / 1e6));
+                lines.add(line.toString());
+
+                totalCount += count;
+                totalErrors += errors;
+            }
+
+            json.put("durationSeconds", seconds);
+            json.put("totalRequests", totalCount);
+            json.put("totalErrors", totalErrors);
+            json.put("throughput", totalCount / seconds);
+            lines.add(String.format("total    %10d %8d %10.1f", totalCount, totalErrors, totalCount / seconds));
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        void print() {
+            lines.forEach(System.out::println);
+        }
+
+        void write(Path path) throws IOException {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), json);
+            System.out.println("Report written to " + path.toAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ofw.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Startup-time measurement.
+ *
+ * Starts the server in a fresh JVM --runs times and measures the time from process launch
+ * until the health endpoint (the readiness probe path) first answers 200, which is what
+ * decides when a new pod takes traffic. Each server is stopped before the next run, so every
+ * run is a cold start. Reports min / median / max and fails when the median is above --max-ms,
+ * so a CI job can catch regressions.
+ *
+ * By default the server runs from the test classpath against an in-memory H2 database, as in
+ * LoadHarness. --command measures any other launch line instead, e.g. the container's
+ * entrypoint with its CDS archive; it must make the server listen on --port.
+ *
+ * Usage:
+ *   mvn -Pbenchmark test-compile exec:exec@startup -Dstartup.args="--runs 5 --max-ms 15000"
+ *
+ * Options:
+ *   --runs N               Cold starts to measure (default 5)
+ *   --command CMD          Server launch command, split on spaces (default: embedded H2 server)
+ *   --jvm-args ARGS        Extra JVM options for the default command, split on spaces
+ *   --port N               Port the server listens on (default 18080)
+ *   --health-path PATH     Readiness path (default /api/v1/upload/health)
+ *   --timeout SECONDS      Give up on a run after this long (default 180)
+ *   --max-ms N             Fail if the median time to ready is above this
+ *   --out FILE             JSON report path (default target/startup-result.json)
+ */
+public class StartupTimer {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private final List<String> command;
+    private final URI healthUri;
+    private final Duration timeout;
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+
+    StartupTimer(List<String> command, URI healthUri, Duration timeout) {
+        this.command = command;
+        this.healthUri = healthUri;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        int port = options.getInt("port", 18080);
+        List<String> command = options.has("command")
+            ? split(options.get("command", ""))
+            : embeddedServerCommand(port, split(options.get("jvm-args", "")));
+
+        StartupTimer timer = new StartupTimer(command,
+            URI.create("http://localhost:" + port + options.get("health-path", "/api/v1/upload/health")),
+            Duration.ofSeconds(options.getInt("timeout", 180)));
+
+        int runs = options.getInt("runs", 5);
+        List<Run> results = new ArrayList<>();
+        System.out.printf("Measuring %d cold starts of %s%n", runs, command.get(command.size() - 1));
+        for (int i = 1; i <= runs; i++) {
+            Run run = timer.measure();
+            results.add(run);
+            System.out.printf("  run %d: ready in %d ms (Spring reported %s)%n", i, run.readyMillis(),
+                run.springSeconds() != null ? run.springSeconds() + " s" : "n/a");
+        }
+
+        long[] ready = results.stream().mapToLong(Run::readyMillis).sorted().toArray();
+        long median = ready[ready.length / 2];
+        System.out.printf("Time to ready: min %d ms, median %d ms, max %d ms%n",
+            ready[0], median, ready[ready.length - 1]);
+
+        write(Path.of(options.get("out", "target/startup-result.json")), command, results, median);
+
+        long maxMillis = options.getLong("max-ms", Long.MAX_VALUE);
+        if (median > maxMillis) {
+            System.err.printf("Median startup %d ms is above the limit of %d ms%n", median, maxMillis);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The application on this JVM's classpath with an embedded database, as a child JVM.
+     */
+    static List<String> embeddedServerCommand(int port, List<String> jvmArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.addAll(List.of(
+            "-cp", System.getProperty("java.class.path"),
+            "-Dserver.port=" + port,
+            "-Dspring.datasource.url=jdbc:h2:mem:ofw_startup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "-Dspring.datasource.driver-class-name=org.h2.Driver",
+            "-Dspring.datasource.username=sa",
+            "-Dspring.datasource.password=",
+            "-Dspring.jpa.hibernate.ddl-auto=create-drop",
+            "-Dspring.devtools.restart.enabled=false",
+            "com.ofw.OfwServerApplication"));
+        return command;
+    }
+
+    /**
+     * Launch the server once, wait until it is ready, then stop it.
+     */
+    Run measure() throws IOException, InterruptedException {
+        File log = File.createTempFile("ofw-startup-", ".log");
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log)
+            .start();
+        try {
+            long readyMillis = waitUntilReady(process, start);
+            return new Run(readyMillis, springSeconds(log.toPath()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            Files.deleteIfExists(log.toPath());
+        }
+    }
+
+    private long waitUntilReady(Process process, long start) throws IOException, InterruptedException {
+        long deadline = start + timeout.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(healthUri).timeout(Duration.ofSeconds(2)).GET().build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Server exited with status " + process.exitValue() + " before it was ready");
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            } catch (ConnectException | HttpTimeoutException e) {
+                // Not listening yet
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("Server not ready after " + timeout.toSeconds() + "s");
+    }
+
+    private static Double springSeconds(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) : null;
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.trim().split("\\s+")).filter(s -> !s.isEmpty()).toList();
+    }
+
+    private static void write(Path out, List<String> command, List<Run> results, long median) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        root.put("command", String.join(" ", command));
+        root.put("medianReadyMillis", median);
+        ArrayNode runs = root.putArray("runs");
+        for (Run run : results) {
+            ObjectNode node = runs.addObject();
+            node.put("readyMillis", run.readyMillis());
+            if (run.springSeconds() != null) {
+                node.put("springSeconds", run.springSeconds());
+            }
+        }
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), root);
+        System.out.println("Report written to " + out);
+    }
+
+    record Run(long readyMillis, Double springSeconds) {
+    }
+}
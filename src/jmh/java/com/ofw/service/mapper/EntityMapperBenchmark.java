@@ -0,0 +1,102 @@
+package com.ofw.service.mapper;
+
+import com.ofw.model.dto.MessageDateDTO;
+import com.ofw.model.dto.MessageDetailDTO;
+import com.ofw.model.dto.MessageListItemDTO;
+import com.ofw.model.entity.Attachment;
+import com.ofw.model.entity.Folder;
+import com.ofw.model.entity.Message;
+import com.ofw.model.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks for EntityMapper hot paths used by the message list and detail endpoints.
+ * Lives in the mapper package so it can reach the package-private date conversion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityMapperBenchmark {
+
+    @Param({"1", "3"})
+    public int recipientCount;
+
+    private static final String BODY =
+        "The appointment is at 3pm, the doctor requested his medication. Please do not forget it.";
+
+    private EntityMapper mapper;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        mapper = new EntityMapper();
+
+        Folder inbox = Folder.builder()
+            .id(1L)
+            .folderId(1L)
+            .name("Inbox")
+            .folderType("INBOX")
+            .folderOrder(1)
+            .isSystemFolder(true)
+            .build();
+
+        message = Message.builder()
+            .id(10L)
+            .messageId(123456789L)
+            .folder(inbox)
+            .subject("Re: Doctor appointment")
+            .preview("The appointment is at 3pm...")
+            .isDraft(false)
+            .isRead(false)
+            .isReplied(false)
+            .canReply(true)
+            .author(user(1001101L, "Jane", "Smith"))
+            .messageDate(LocalDateTime.of(2026, 2, 12, 0, 0))
+            .build();
+
+        for (int i = 0; i < recipientCount; i++) {
+            message.addRecipient(user(1011010L + i, "John", "Doe"));
+        }
+        message.addAttachment(Attachment.builder()
+            .id(1L)
+            .fileName("document.pdf")
+            .fileSize(123456L)
+            .contentType("application/pdf")
+            .build());
+    }
+
+    @Benchmark
+    public MessageListItemDTO toMessageListItemDTO() {
+        return mapper.toMessageListItemDTO(message);
+    }
+
+    @Benchmark
+    public MessageDetailDTO toMessageDetailDTO() {
+        return mapper.toMessageDetailDTO(message, BODY);
+    }
+
+    @Benchmark
+    public MessageDateDTO toMessageDateDTO() {
+        return mapper.toMessageDateDTO(message);
+    }
+
+    private static User user(Long userId, String firstName, String lastName) {
+        return User.builder()
+            .id(userId)
+            .userId(userId)
+            .username(firstName + " " + lastName)
+            .firstName(firstName)
+            .lastName(lastName)
+            .displayInitials("" + firstName.charAt(0) + lastName.charAt(0))
+            .avatarColor("#FF5733")
+            .isActive(true)
+            .userType("PARENT")
+            .build();
+    }
+}
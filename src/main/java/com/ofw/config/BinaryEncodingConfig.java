@@ -0,0 +1,46 @@
+package com.ofw.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Smile and CBOR response encodings.
+ *
+ * Clients that send {@code Accept: application/x-jackson-smile} or
+ * {@code Accept: application/cbor} get the same documents as JSON in a binary encoding,
+ * which is smaller and cheaper to write and parse. Both mappers are copies of the shared
+ * ObjectMapper (OfwServerApplication), so dates and modules match the JSON output. The
+ * converters are added after the JSON one, so JSON stays the default for wildcard
+ * Accept headers and requests without one.
+ */
+@Configuration
+public class BinaryEncodingConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public BinaryEncodingConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper(objectMapper)));
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper(objectMapper)));
+    }
+
+    public static ObjectMapper smileMapper(ObjectMapper objectMapper) {
+        return objectMapper.copyWith(new SmileFactory());
+    }
+
+    public static ObjectMapper cborMapper(ObjectMapper objectMapper) {
+        return objectMapper.copyWith(new CBORFactory());
+    }
+}
@@ -0,0 +1,63 @@
+package com.ofw.config;
+
+import com.ofw.service.upload.SpooledUpload;
+import jakarta.servlet.MultipartConfigElement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Multipart configuration backed by spring.servlet.multipart.*.
+ *
+ * The container spools parts into spring.servlet.multipart.location, which defaults to
+ * the upload spool directory (UPLOAD_TEMP_DIR) so spooled parts can be renamed rather
+ * than copied. The directory must exist before the web server starts; this bean creates
+ * it and removes spool files a previous process left behind.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Slf4j
+public class MultipartConfig {
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(
+            MultipartProperties properties,
+            @Value("${ofw.upload.temp-dir:${java.io.tmpdir}/ofw-uploads}") String spoolDir) {
+        if (!StringUtils.hasText(properties.getLocation())) {
+            properties.setLocation(spoolDir);
+        }
+        
+        Path location = Path.of(properties.getLocation());
+        try {
+            Files.createDirectories(location);
+            sweepStaleSpoolFiles(location);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare upload directory " + location, e);
+        }
+        return properties.createMultipartConfig();
+    }
+
+    private void sweepStaleSpoolFiles(Path location) throws IOException {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(location, SpooledUpload.FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                if (Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("Removed {} stale upload spool files from {}", deleted, location);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ofw.config;
+
+import com.ofw.service.metrics.QueryStatsIntegrator;
+import com.ofw.service.metrics.QueryStatsSessionListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Registers the Hibernate listeners behind per-request query statistics (QueryStatsFilter).
+ *
+ * Both only touch a thread-local when a request is being measured, so they cost next to
+ * nothing elsewhere.
+ */
+@Configuration
+public class QueryStatsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryStatsSessionListener.class.getName());
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(new QueryStatsIntegrator()));
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package com.ofw.config;
+
+import com.ofw.service.shard.ShardContext;
+import com.ofw.service.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sharded persistence (ofw.sharding.enabled): one database per shard behind a routing
+ * DataSource.
+ *
+ * The routing DataSource is always the application's DataSource, and sharding is switched
+ * at runtime: the image is built with Spring AOT, which evaluates bean conditions at build
+ * time, so a conditional configuration could not be enabled in a deployed image. Without
+ * sharding it routes to a single shard, the spring.datasource pool.
+ *
+ * ofw.sharding.urls lists the JDBC URLs in shard order; shard 0 also holds the shard
+ * directory. All shards share spring.datasource's credentials and driver and get their
+ * own pool (ofw-shard-N) of ofw.sharding.pool-size connections. The list must keep its
+ * order: appending a URL adds a shard, reordering moves every family.
+ *
+ * Hibernate creates or validates the schema of shard 0 on startup as usual; the same
+ * spring.jpa.hibernate.ddl-auto action is then applied to the other shards before the
+ * application serves requests.
+ */
+@Configuration
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource dataSource(DataSourceProperties properties,
+                                             MeterRegistry registry,
+                                             Environment environment,
+                                             @Value("${ofw.sharding.enabled:false}") boolean enabled,
+                                             @Value("${ofw.sharding.urls:}") String urls,
+                                             @Value("${ofw.sharding.pool-size:10}") int poolSize) {
+        if (!enabled) {
+            return new ShardRoutingDataSource(List.of(pool(properties, environment, registry, properties.determineUrl())));
+        }
+
+        List<String> shardUrls = Arrays.stream(urls.split(","))
+            .map(String::trim)
+            .filter(url -> !url.isEmpty())
+            .toList();
+        if (shardUrls.isEmpty()) {
+            throw new IllegalStateException("ofw.sharding.enabled is set but ofw.sharding.urls is empty");
+        }
+
+        List<DataSource> shards = new ArrayList<>(shardUrls.size());
+        for (int i = 0; i < shardUrls.size(); i++) {
+            HikariDataSource pool = pool(properties, environment, registry, shardUrls.get(i));
+            pool.setPoolName("ofw-shard-" + i);
+            pool.setMaximumPoolSize(poolSize);
+            shards.add(pool);
+        }
+        log.info("Sharded persistence over {} databases", shards.size());
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * A pool configured like Spring Boot's own: spring.datasource credentials and driver,
+     * spring.datasource.hikari settings.
+     */
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+                                         MeterRegistry registry, String url) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .url(url)
+            .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setMetricRegistry(registry);
+        return pool;
+    }
+
+    @Bean
+    public SmartInitializingSingleton shardSchemaInitializer(
+            EntityManagerFactory entityManagerFactory,
+            ShardRoutingDataSource routing,
+            @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return () -> {
+            SchemaManager schemaManager = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+            for (int shard = 1; shard < routing.size(); shard++) {
+                try (ShardContext.Scope scope = ShardContext.use(shard)) {
+                    switch (ddlAuto) {
+                        case "create", "create-drop" -> {
+                            schemaManager.dropMappedObjects(false);
+                            schemaManager.exportMappedObjects(false);
+                        }
+                        case "create-only" -> schemaManager.exportMappedObjects(false);
+                        case "validate" -> schemaManager.validateMappedObjects();
+                        case "none" -> {
+                        }
+                        default -> log.warn("ddl-auto={} is not applied to shard {}", ddlAuto, shard);
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.ofw.controller;
+
+import com.ofw.service.accesslog.AccessLog;
+import com.ofw.service.metrics.QueryStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Hands every API request under /pub and /api to the AccessLog once it has finished.
+ *
+ * Runs before the other filters, so the latency includes upload admission and the status
+ * includes its 429s. Row counts come from QueryStatsFilter, which runs inside this one.
+ * An exception escaping the chain is logged as 500, the status the container sends for it.
+ * For server-sent event streams the request ends when the subscription is set up.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private final AccessLog accessLog;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !(path.startsWith("/pub/") || path.startsWith("/api/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            int status = failed ? HttpStatus.INTERNAL_SERVER_ERROR.value() : response.getStatus();
+            record(request, status, System.nanoTime() - start);
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long latencyNanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Unmatched requests have no route; their path shows what was asked for
+        String route = pattern != null ? pattern.toString() : request.getServletPath();
+        QueryStats stats = (QueryStats) request.getAttribute(QueryStatsFilter.STATS_ATTRIBUTE);
+
+        accessLog.record(request.getMethod(), route, status, latencyNanos,
+            stats != null ? stats.getStatements() : 0,
+            stats != null ? stats.getEntitiesLoaded() : 0,
+            stats != null ? stats.getJdbcNanos() : 0);
+    }
+}
@@ -0,0 +1,185 @@
+package com.ofw.controller;
+
+import com.ofw.model.dto.AttachmentDTO;
+import com.ofw.service.AttachmentService;
+import com.ofw.service.AttachmentService.AttachmentContent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * REST controller for attachment content.
+ *
+ * Downloads are streamed from the blob store without buffering on the heap: through
+ * Tomcat's sendfile when the connector supports it, otherwise FileChannel.transferTo.
+ * Blobs are content-addressed and never change, so the SHA-256 is a strong ETag and
+ * responses are cacheable as immutable.
+ *
+ * Lazy, with AttachmentService and AttachmentRepository: they are created on the first
+ * attachment request rather than during startup.
+ */
+@RestController
+@Lazy
+@RequestMapping("/pub/v3")
+@RequiredArgsConstructor
+public class AttachmentController {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String CACHE_CONTROL = "private, max-age=31536000, immutable";
+
+    private final AttachmentService attachmentService;
+
+    /**
+     * Upload an attachment for a message.
+     *
+     * POST /pub/v3/messages/{messageId}/attachments
+     *
+     * @param messageId Message ID
+     * @param file Attachment file
+     * @return Created attachment with its download URL
+     */
+    @PostMapping(value = "/messages/{messageId}/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AttachmentDTO> addAttachment(
+            @PathVariable Long messageId,
+            @RequestParam("file") MultipartFile file) throws IOException {
+
+        AttachmentDTO attachment = attachmentService.addAttachment(messageId, file);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(attachment);
+    }
+
+    /**
+     * Download attachment content.
+     *
+     * GET /pub/v3/attachments/{attachmentId}/content
+     *
+     * Supports a single byte range (Range / If-Range) and conditional requests
+     * (If-None-Match). Multi-range requests are answered with the full content.
+     *
+     * @param attachmentId Attachment ID
+     */
+    @GetMapping("/attachments/{attachmentId}/content")
+    public void downloadAttachment(
+            @PathVariable Long attachmentId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        AttachmentContent content = attachmentService.getContent(attachmentId);
+        String etag = "\"" + content.hash() + "\"";
+        long size = content.size();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                // Malformed ranges are ignored and the full content is sent
+                ranges = List.of();
+            }
+
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                } catch (IllegalArgumentException e) {
+                    start = size;
+                }
+                if (start >= size || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(content.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(content.fileName()));
+        response.setContentLengthLong(length);
+
+        if (length <= 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The connector sends the file from the kernel once the request completes
+            request.setAttribute(SENDFILE_FILENAME, content.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(content.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private String contentDisposition(String fileName) {
+        ContentDisposition.Builder builder = ContentDisposition.inline();
+        if (StandardCharsets.US_ASCII.newEncoder().canEncode(fileName)) {
+            builder.filename(fileName);
+        } else {
+            builder.filename(fileName, StandardCharsets.UTF_8);
+        }
+        return builder.build().toString();
+    }
+
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
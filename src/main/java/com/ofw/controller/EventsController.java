@@ -0,0 +1,40 @@
+package com.ofw.controller;
+
+import com.ofw.service.events.EventBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller for server-sent change events.
+ * Replaces polling folder counts: clients hold one EventSource connection per device.
+ */
+@RestController
+@RequestMapping("/pub/v3")
+@RequiredArgsConstructor
+public class EventsController {
+    
+    private final EventBroadcaster broadcaster;
+    
+    /**
+     * Subscribe to folder and message change events.
+     * 
+     * GET /pub/v3/events
+     * 
+     * @return Event stream, or 503 if this instance has no free subscription slots
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe() {
+        return broadcaster.subscribe()
+            .map(emitter -> ResponseEntity.ok()
+                // Stop nginx-style proxies from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(emitter))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .build());
+    }
+}
@@ -4,7 +4,6 @@ import com.ofw.model.dto.FolderDTO;
 import com.ofw.model.dto.FoldersResponseDTO;
 import com.ofw.service.FolderService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,7 +14,6 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/pub/v1")
 @RequiredArgsConstructor
-@Slf4j
 public class FolderController {
     
     private final FolderService folderService;
@@ -32,8 +30,6 @@ public class FolderController {
     public ResponseEntity<FoldersResponseDTO> getFolders(
             @RequestParam(value = "includeFolderCounts", defaultValue = "false") boolean includeFolderCounts) {
         
-        log.info("GET /pub/v1/messageFolders?includeFolderCounts={}", includeFolderCounts);
-        
         FoldersResponseDTO response = folderService.getFolders(includeFolderCounts);
         
         return ResponseEntity.ok(response);
@@ -52,8 +48,6 @@ public class FolderController {
             @PathVariable Long folderId,
             @RequestParam(value = "includeFolderCounts", defaultValue = "false") boolean includeFolderCounts) {
         
-        log.info("GET /pub/v1/messageFolders/{}", folderId);
-        
         FolderDTO folder = folderService.getFolder(folderId, includeFolderCounts);
         
         return ResponseEntity.ok(folder);
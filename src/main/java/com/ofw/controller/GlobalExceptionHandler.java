@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.ofw.service.sync.SyncTokenException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -42,6 +43,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
     
+    /**
+     * Handle unusable sync tokens: 400 if malformed, 410 if too old to sync from.
+     */
+    @ExceptionHandler(SyncTokenException.class)
+    public ResponseEntity<ErrorResponse> handleSyncTokenException(
+            SyncTokenException ex, 
+            WebRequest request) {
+        
+        log.warn("SyncTokenException: {}", ex.getMessage());
+        
+        HttpStatus status = ex.isExpired() ? HttpStatus.GONE : HttpStatus.BAD_REQUEST;
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(status.value())
+            .error(status.getReasonPhrase())
+            .message(ex.getMessage())
+            .path(request.getDescription(false).replace("uri=", ""))
+            .build();
+        
+        return ResponseEntity.status(status).body(error);
+    }
+    
     /**
      * Handle all other exceptions.
      */
@@ -4,7 +4,6 @@ import com.ofw.model.dto.MessageDetailDTO;
 import com.ofw.model.dto.MessagesResponseDTO;
 import com.ofw.service.MessageService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,7 +14,6 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/pub/v3")
 @RequiredArgsConstructor
-@Slf4j
 public class MessageController {
     
     private final MessageService messageService;
@@ -40,15 +38,37 @@ public class MessageController {
             @RequestParam(value = "sort", defaultValue = "messageDate") String sort,
             @RequestParam(value = "sortDirection", defaultValue = "DESC") String sortDirection) {
         
-        log.info("GET /pub/v3/messages?folder={}&page={}&size={}&sort={}&sortDirection={}", 
-            folderId, page, size, sort, sortDirection);
-        
         MessagesResponseDTO response = messageService.getMessages(
             folderId, page, size, sort, sortDirection);
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Get paginated messages a user received, or exchanged with another user.
+     * 
+     * GET /pub/v3/users/{userId}/messages?with={otherUserId}&page={page}&size={size}
+     * 
+     * @param userId User ID
+     * @param otherUserId Other user ID (optional); restricts to messages between the two users
+     * @param page Page number (default: 0)
+     * @param size Page size (default: 25)
+     * @return Paginated messages response, newest first
+     */
+    @GetMapping("/users/{userId}/messages")
+    public ResponseEntity<MessagesResponseDTO> getUserMessages(
+            @PathVariable Long userId,
+            @RequestParam(value = "with", required = false) Long otherUserId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "25") int size) {
+        
+        MessagesResponseDTO response = otherUserId != null
+            ? messageService.getMessagesBetween(userId, otherUserId, page, size)
+            : messageService.getMessagesReceivedBy(userId, page, size);
+        
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Get a single message by ID.
      * 
@@ -60,8 +80,6 @@ public class MessageController {
     @GetMapping("/messages/{messageId}")
     public ResponseEntity<MessageDetailDTO> getMessage(@PathVariable Long messageId) {
         
-        log.info("GET /pub/v3/messages/{}", messageId);
-        
         MessageDetailDTO message = messageService.getMessage(messageId);
         
         return ResponseEntity.ok(message);
@@ -78,8 +96,6 @@ public class MessageController {
     @PutMapping("/messages/{messageId}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable Long messageId) {
         
-        log.info("PUT /pub/v3/messages/{}/read", messageId);
-        
         messageService.markAsRead(messageId);
         
         return ResponseEntity.ok().build();
@@ -96,8 +112,6 @@ public class MessageController {
     @PutMapping("/messages/{messageId}/unread")
     public ResponseEntity<Void> markAsUnread(@PathVariable Long messageId) {
         
-        log.info("PUT /pub/v3/messages/{}/unread", messageId);
-        
         messageService.markAsUnread(messageId);
         
         return ResponseEntity.ok().build();
@@ -114,8 +128,6 @@ public class MessageController {
     @DeleteMapping("/messages/{messageId}")
     public ResponseEntity<Void> deleteMessage(@PathVariable Long messageId) {
         
-        log.info("DELETE /pub/v3/messages/{}", messageId);
-        
         messageService.deleteMessage(messageId);
         
         return ResponseEntity.noContent().build();
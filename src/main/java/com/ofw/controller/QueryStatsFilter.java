@@ -0,0 +1,133 @@
+package com.ofw.controller;
+
+import com.ofw.service.metrics.QueryStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the SQL work of each API request (QueryStats).
+ *
+ * Every request under /pub and /api records its statement count, loaded entities and JDBC
+ * time, tagged by method and URI pattern. With ofw.query-stats.header enabled the numbers
+ * are also sent as an X-Query-Stats response header. The header is added when the body
+ * starts, so it covers everything up to serialization; the meters cover the whole request.
+ * The finished stats are left in the STATS_ATTRIBUTE request attribute for AccessLogFilter.
+ *
+ * Meters (tags: method, uri):
+ * - ofw.request.statements (summary) - SQL statements executed; a JDBC batch counts once
+ * - ofw.request.entities   (summary) - entities loaded by Hibernate
+ * - ofw.request.jdbc       (timer) - time spent executing statements
+ */
+@Component
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Stats";
+    static final String STATS_ATTRIBUTE = QueryStatsFilter.class.getName() + ".stats";
+
+    private final MeterRegistry registry;
+    private final boolean header;
+
+    public QueryStatsFilter(MeterRegistry registry,
+                            @Value("${ofw.query-stats.header:false}") boolean header) {
+        this.registry = registry;
+        this.header = header;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !(path.startsWith("/pub/") || path.startsWith("/api/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        QueryStats stats = QueryStats.start();
+        request.setAttribute(STATS_ATTRIBUTE, stats);
+        HttpServletResponse measured = header ? new StatsHeaderResponse(response, stats) : response;
+        try {
+            chain.doFilter(request, measured);
+        } finally {
+            QueryStats.stop();
+            if (header && !response.isCommitted()) {
+                // Bodiless responses (204, redirects) never started a body
+                response.setHeader(HEADER, stats.toString());
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("ofw.request.statements")
+            .description("SQL statements executed per request")
+            .tags("method", method, "uri", uri)
+            .register(registry)
+            .record(stats.getStatements());
+        DistributionSummary.builder("ofw.request.entities")
+            .description("Entities loaded per request")
+            .tags("method", method, "uri", uri)
+            .register(registry)
+            .record(stats.getEntitiesLoaded());
+        Timer.builder("ofw.request.jdbc")
+            .description("Statement execution time per request")
+            .tags("method", method, "uri", uri)
+            .register(registry)
+            .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the stats header just before the first byte of the body.
+     */
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final QueryStats stats;
+
+        StatsHeaderResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setStatsHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setStatsHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setStatsHeader();
+            super.flushBuffer();
+        }
+
+        private void setStatsHeader() {
+            if (!isCommitted()) {
+                setHeader(HEADER, stats.toString());
+            }
+        }
+    }
+}
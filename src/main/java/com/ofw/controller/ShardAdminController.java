@@ -0,0 +1,32 @@
+package com.ofw.controller;
+
+import com.ofw.model.dto.ShardStatsDTO;
+import com.ofw.service.shard.ShardStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for shard administration.
+ */
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+public class ShardAdminController {
+    
+    private final ShardStatsService shardStatsService;
+    
+    /**
+     * Row counts of every shard; a single shard 0 when sharding is off.
+     * 
+     * GET /api/v1/admin/shards
+     * 
+     * @return Counts per shard, in shard order
+     */
+    @GetMapping("/shards")
+    public ResponseEntity<List<ShardStatsDTO>> getShards() {
+        return ResponseEntity.ok(shardStatsService.getStats());
+    }
+}
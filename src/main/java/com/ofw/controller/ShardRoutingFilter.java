@@ -0,0 +1,115 @@
+package com.ofw.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ofw.service.shard.ShardContext;
+import com.ofw.service.shard.ShardDirectory;
+import com.ofw.service.shard.Shards;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Routes each request to the shard holding its family's data; does nothing unless there is
+ * more than one shard.
+ *
+ * The shard comes from, in order:
+ * - /api/v1/upload/sessions/{sessionId}/... - the shard holding the session (fan-out)
+ * - the ofw-user-id header - the shard of that account. Its family's data is on that
+ *   shard whichever member the path names, so no lookup is needed.
+ * - /pub/v3/messages/{messageId}/... - the shard directory, so message links work without
+ *   knowing the family; unknown IDs go to shard 0 and get 404
+ *
+ * Other /pub requests are rejected with 400, /pub/v3/users/{userId}/... included: that
+ * user's messages are on the uploader's shard, which the user ID alone does not give. Uploads are routed by UploadController,
+ * which knows the userId form field; other /api requests run on shard 0.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    public static final String USER_HEADER = "ofw-user-id";
+
+    private static final Pattern MESSAGE_PATH = Pattern.compile("^/pub/v3/messages/(\\d+)(/.*)?$");
+    private static final Pattern SESSION_PATH = Pattern.compile("^/api/v1/upload/sessions/([^/]+)(/.*)?$");
+
+    private final Shards shards;
+    private final ShardDirectory directory;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !shards.isSharded() || !(path.startsWith("/pub/") || SESSION_PATH.matcher(path).matches());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        Optional<Integer> shard;
+        try {
+            shard = resolve(request);
+        } catch (NumberFormatException e) {
+            reject(request, response, "Invalid user or message ID");
+            return;
+        }
+        if (shard.isEmpty()) {
+            reject(request, response, "Sharded server: send the " + USER_HEADER + " header");
+            return;
+        }
+
+        try (ShardContext.Scope scope = ShardContext.use(shard.get())) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    Optional<Integer> resolve(HttpServletRequest request) {
+        String path = request.getServletPath();
+
+        Matcher session = SESSION_PATH.matcher(path);
+        if (session.matches()) {
+            // Unknown sessions still reach the controller, which answers 404
+            return Optional.of(directory.findSession(session.group(1)).orElse(0));
+        }
+
+        String header = request.getHeader(USER_HEADER);
+        if (header != null) {
+            return Optional.of(shards.shardFor(Long.parseLong(header.trim())));
+        }
+
+        Matcher message = MESSAGE_PATH.matcher(path);
+        if (message.matches()) {
+            return Optional.of(directory.findMessage(Long.parseLong(message.group(1))).orElse(0));
+        }
+        return Optional.empty();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, String message)
+            throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .error("Bad Request")
+            .message(message)
+            .path(request.getRequestURI())
+            .build();
+
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ofw.controller;
+
+import com.ofw.model.dto.SyncResponseDTO;
+import com.ofw.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for delta sync.
+ * Clients keep a local mailbox copy and poll for changes with the token from the last response.
+ */
+@RestController
+@RequestMapping("/pub/v3")
+@RequiredArgsConstructor
+public class SyncController {
+    
+    private final SyncService syncService;
+    
+    /**
+     * Get messages and folders created, updated or deleted since a token.
+     * 
+     * GET /pub/v3/sync?token={token}&limit={limit}
+     * 
+     * @param token Token from the previous response (omit for a full sync)
+     * @param limit Maximum rows per entity type (default: 200)
+     * @return Changes and the next token
+     */
+    @GetMapping("/sync")
+    public ResponseEntity<SyncResponseDTO> sync(
+            @RequestParam(value = "token", required = false) String token,
+            @RequestParam(value = "limit", defaultValue = "200") int limit) {
+        
+        return ResponseEntity.ok(syncService.getChanges(token, limit));
+    }
+}
@@ -0,0 +1,51 @@
+package com.ofw.controller;
+
+import com.ofw.model.dto.ThreadDetailDTO;
+import com.ofw.model.dto.ThreadsResponseDTO;
+import com.ofw.service.ThreadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for conversation threads.
+ */
+@RestController
+@RequestMapping("/pub/v3")
+@RequiredArgsConstructor
+public class ThreadController {
+    
+    private final ThreadService threadService;
+    
+    /**
+     * Get paginated thread summaries, most recently active first.
+     * 
+     * GET /pub/v3/threads?folder={folderId}&page={page}&size={size}
+     * 
+     * @param folderId Folder ID (optional)
+     * @param page Page number (default: 0)
+     * @param size Page size (default: 25)
+     * @return Paginated thread summaries
+     */
+    @GetMapping("/threads")
+    public ResponseEntity<ThreadsResponseDTO> getThreads(
+            @RequestParam(value = "folder", required = false) Long folderId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "25") int size) {
+        
+        return ResponseEntity.ok(threadService.getThreads(folderId, page, size));
+    }
+    
+    /**
+     * Get a thread with its messages.
+     * 
+     * GET /pub/v3/threads/{threadId}
+     * 
+     * @param threadId Thread ID
+     * @return Thread summary and messages in date order
+     */
+    @GetMapping("/threads/{threadId}")
+    public ResponseEntity<ThreadDetailDTO> getThread(@PathVariable Long threadId) {
+        return ResponseEntity.ok(threadService.getThread(threadId));
+    }
+}
@@ -0,0 +1,79 @@
+package com.ofw.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ofw.service.admission.UploadAdmission;
+import com.ofw.service.admission.UploadRejectedException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Applies UploadAdmission to POST /api/v1/upload/debug.
+ *
+ * Runs as a servlet filter rather than in UploadController because Spring parses the
+ * multipart body before any handler runs; rejecting here avoids reading and spooling
+ * the upload at all. Rejected requests get 429 with a Retry-After header.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    static final String UPLOAD_PATH = "/api/v1/upload/debug";
+
+    private final UploadAdmission admission;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("POST".equals(request.getMethod()) && UPLOAD_PATH.equals(request.getServletPath()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        UploadAdmission.Permit permit;
+        try {
+            permit = admission.acquire();
+        } catch (UploadRejectedException e) {
+            log.warn("Upload rejected: {} (Retry-After {}s)", e.getMessage(), e.getRetryAfterSeconds());
+            reject(request, response, e);
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        UploadRejectedException e) throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.TOO_MANY_REQUESTS.value())
+            .error("Too Many Requests")
+            .message(e.getMessage())
+            .path(request.getRequestURI())
+            .build();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        // The request body is left unread, so the connection cannot be reused
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
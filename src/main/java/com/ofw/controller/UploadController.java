@@ -1,15 +1,25 @@
 package com.ofw.controller;
 
+import com.ofw.model.dto.DeadLetterDTO;
+import com.ofw.model.dto.DeadLetterReplayDTO;
 import com.ofw.model.dto.UploadResultDTO;
 import com.ofw.service.UploadService;
+import com.ofw.service.metrics.IngestionMetrics;
+import com.ofw.service.shard.ShardContext;
+import com.ofw.service.shard.Shards;
+import com.ofw.service.upload.DeadLetterService;
+import com.ofw.service.upload.UploadInProgressException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 /**
  * REST controller for uploading debug data.
  * Follows RESTful API design principles.
@@ -21,6 +31,10 @@ import org.springframework.web.multipart.MultipartFile;
 public class UploadController {
     
     private final UploadService uploadService;
+    // Lazy: not created until the first dead letter request
+    private final ObjectProvider<DeadLetterService> deadLetterService;
+    private final IngestionMetrics metrics;
+    private final Shards shards;
     
     /**
      * Upload debug data files from OFW client debug directory.
@@ -28,20 +42,32 @@ public class UploadController {
      * POST /api/v1/upload/debug
      * 
      * @param files Array of JSON files from debug directory
-     * @param userId Optional user ID to associate with upload
+     * @param userId User ID to associate with upload; required on a sharded server, where it
+     *               picks the shard the family's data is stored on
      * @param notes Optional notes about the upload
+     * @param idempotencyKey Optional key; retries with the same key return the original result
      * @return Upload result with session ID and statistics
      */
     @PostMapping(value = "/debug", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<UploadResultDTO> uploadDebugData(
             @RequestParam("files") MultipartFile[] files,
             @RequestParam(value = "userId", required = false) Long userId,
-            @RequestParam(value = "notes", required = false) String notes) {
+            @RequestParam(value = "notes", required = false) String notes,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         
-        log.info("Received upload request: {} files, userId={}", files.length, userId);
+        if (shards.isSharded() && userId == null) {
+            UploadResultDTO errorResult = UploadResultDTO.builder()
+                .status("ERROR")
+                .message("userId is required on a sharded server")
+                .errors(1)
+                .build();
+            
+            return ResponseEntity.badRequest().body(errorResult);
+        }
         
-        try {
-            UploadResultDTO result = uploadService.uploadDebugData(files, userId, notes);
+        metrics.uploadStarted();
+        try (ShardContext.Scope scope = ShardContext.use(userId == null ? 0 : shards.shardFor(userId))) {
+            UploadResultDTO result = uploadService.uploadDebugData(files, userId, notes, idempotencyKey);
             
             if ("FAILED".equals(result.getStatus())) {
                 return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).body(result);
@@ -49,6 +75,17 @@ public class UploadController {
             
             return ResponseEntity.ok(result);
             
+        } catch (UploadInProgressException e) {
+            log.warn("Rejected upload: {}", e.getMessage());
+            
+            UploadResultDTO conflictResult = UploadResultDTO.builder()
+                .status("CONFLICT")
+                .message(e.getMessage())
+                .errors(1)
+                .build();
+            
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(conflictResult);
+            
         } catch (Exception e) {
             log.error("Error processing upload", e);
             
@@ -62,9 +99,33 @@ public class UploadController {
             
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(errorResult);
+        } finally {
+            metrics.uploadFinished();
         }
     }
     
+    /**
+     * Records of an upload session that failed to process, with their errors.
+     * 
+     * GET /api/v1/upload/sessions/{sessionId}/dead-letters
+     */
+    @GetMapping("/sessions/{sessionId}/dead-letters")
+    public ResponseEntity<List<DeadLetterDTO>> getDeadLetters(@PathVariable String sessionId) {
+        return ResponseEntity.ok(deadLetterService.getObject().getDeadLetters(sessionId));
+    }
+    
+    /**
+     * Process the failed records of an upload session again, without re-uploading its files.
+     * Records that succeed are removed from the dead letters.
+     * 
+     * POST /api/v1/upload/sessions/{sessionId}/dead-letters/replay
+     */
+    @PostMapping("/sessions/{sessionId}/dead-letters/replay")
+    public ResponseEntity<DeadLetterReplayDTO> replayDeadLetters(@PathVariable String sessionId) {
+        log.info("Replaying dead letters of session {}", sessionId);
+        return ResponseEntity.ok(deadLetterService.getObject().replay(sessionId));
+    }
+    
     /**
      * Health check endpoint.
      */
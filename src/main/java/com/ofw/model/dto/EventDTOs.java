@@ -0,0 +1,32 @@
+package com.ofw.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload of a "folder" server-sent event: a folder's counts after a change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FolderEventDTO {
+    private Long id;
+    private Integer unreadMessageCount;
+    private Integer totalMessageCount;
+}
+
+/**
+ * Payload of a "message" server-sent event.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageEventDTO {
+    private Long id;
+    /** CREATED (new message), UPDATED (e.g. read state) or DELETED. */
+    private String change;
+}
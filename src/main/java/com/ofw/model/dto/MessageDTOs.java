@@ -91,9 +91,12 @@ public class MessageDetailDTO {
 @NoArgsConstructor
 @AllArgsConstructor
 class AttachmentDTO {
+    private Long id;
     private String name;
     private Long size;
     private String contentType;
+    /** Download URL, or null when the attachment's bytes were never uploaded. */
+    private String url;
 }
 
 /**
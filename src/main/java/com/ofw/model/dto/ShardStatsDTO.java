@@ -0,0 +1,22 @@
+package com.ofw.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the row counts of one shard.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardStatsDTO {
+    private Integer shard;
+    private Long users;
+    private Long folders;
+    private Long messages;
+    private Long archivedMessages;
+    private Long uploadSessions;
+}
@@ -0,0 +1,42 @@
+package com.ofw.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for one page of changes since a sync token.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDTO {
+    @Builder.Default
+    private List<MessageListItemDTO> messages = new ArrayList<>();
+    @Builder.Default
+    private List<FolderDTO> folders = new ArrayList<>();
+    @Builder.Default
+    private List<DeletedEntityDTO> deleted = new ArrayList<>();
+    /** Token for the next request. */
+    private String token;
+    /** True if more changes are pending; request again with the new token right away. */
+    private Boolean hasMore;
+}
+
+/**
+ * DTO for a deleted entity.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletedEntityDTO {
+    /** MESSAGE or FOLDER. */
+    private String type;
+    private Long id;
+}
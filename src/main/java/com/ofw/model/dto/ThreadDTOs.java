@@ -0,0 +1,57 @@
+package com.ofw.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a conversation thread summary.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThreadSummaryDTO {
+    private Long id;
+    private String subject;
+    private Integer messageCount;
+    private Integer unreadCount;
+    private Long lastMessageId;
+    private MessageDateDTO firstDate;
+    private MessageDateDTO lastDate;
+    @Builder.Default
+    private List<UserDTO> participants = new ArrayList<>();
+}
+
+/**
+ * DTO for a thread with its messages in date order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThreadDetailDTO {
+    private ThreadSummaryDTO thread;
+    @Builder.Default
+    private List<MessageListItemDTO> messages = new ArrayList<>();
+}
+
+/**
+ * DTO for paginated thread summaries.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThreadsResponseDTO {
+    @Builder.Default
+    private List<ThreadSummaryDTO> data = new ArrayList<>();
+    private Integer page;
+    private Integer size;
+    private Long totalElements;
+    private Integer totalPages;
+}
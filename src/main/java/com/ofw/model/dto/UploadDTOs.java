@@ -1,5 +1,6 @@
 package com.ofw.model.dto;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -40,6 +41,7 @@ class UploadFileDTO {
     private String fileType;
     private String status;
     private Integer recordsCreated;
+    private Integer deadLetterCount;
     private String errorMessage;
 }
 
@@ -69,6 +71,47 @@ public class UploadResultDTO {
     private Integer filesProcessed;
     private Integer recordsCreated;
     private Integer errors;
+    /** Records that failed and were kept for replay. */
+    @Builder.Default
+    private Integer deadLetters = 0;
+    @Builder.Default
+    private List<String> errorMessages = new ArrayList<>();
+    /** True when this is the stored result of an earlier request with the same Idempotency-Key. */
+    @Builder.Default
+    private Boolean replayed = false;
+}
+
+/**
+ * DTO for a failed upload record kept for replay.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterDTO {
+    private Long id;
+    private String fileName;
+    /** Index of the record in the file's data array. */
+    private Integer recordOffset;
+    private String errorMessage;
+    private Integer attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastAttemptAt;
+    /** The record as uploaded. */
+    private JsonNode record;
+}
+
+/**
+ * Response DTO for a dead letter replay.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayDTO {
+    private String sessionId;
+    private Integer replayed;
+    private Integer failed;
     @Builder.Default
     private List<String> errorMessages = new ArrayList<>();
 }
@@ -0,0 +1,92 @@
+package com.ofw.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A message moved to messages_archive by MessageArchiver.
+ *
+ * Same columns and surrogate key as in messages, so recipients, attachments and the body
+ * stay where they are and are found by the same message_id key. Rows are never updated
+ * in place: writes to an archived message restore it to messages first.
+ */
+@Entity
+@Immutable
+@Table(name = "messages_archive", indexes = {
+    @Index(name = "idx_archive_message_id", columnList = "messageId", unique = true),
+    @Index(name = "idx_archive_folder_date", columnList = "folder_id, message_date, id"),
+    @Index(name = "idx_archive_date", columnList = "message_date, id"),
+    @Index(name = "idx_archive_thread_date", columnList = "thread_id, message_date")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedMessage implements MessageView {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long messageId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "folder_id", nullable = false)
+    private Folder folder;
+
+    @Column(length = 500)
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String preview;
+
+    @Column(name = "is_draft")
+    private Boolean isDraft;
+
+    @Column(name = "is_read")
+    private Boolean isRead;
+
+    @Column(name = "is_replied")
+    private Boolean isReplied;
+
+    @Column(name = "can_reply")
+    private Boolean canReply;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "author_user_id", nullable = false)
+    private User author;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "thread_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private MessageThread thread;
+
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(
+        name = "message_recipients",
+        joinColumns = @JoinColumn(name = "message_id"),
+        inverseJoinColumns = @JoinColumn(name = "recipient_user_id"),
+        foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)
+    )
+    @BatchSize(size = 100)
+    private Set<User> recipients = new HashSet<>();
+
+    @OneToMany(fetch = FetchType.LAZY)
+    @JoinColumn(name = "message_id", insertable = false, updatable = false,
+        foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @BatchSize(size = 100)
+    private Set<Attachment> attachments = new HashSet<>();
+
+    @Column(name = "message_date", nullable = false)
+    private LocalDateTime messageDate;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
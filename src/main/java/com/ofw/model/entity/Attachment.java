@@ -4,14 +4,17 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "attachments", indexes = {
-    @Index(name = "idx_message", columnList = "message_id")
+    @Index(name = "idx_message", columnList = "message_id"),
+    @Index(name = "idx_attachment_content_hash", columnList = "content_hash")
 })
 @Data
 @Builder
@@ -23,8 +26,12 @@ public class Attachment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // Excluded: Message hashes its attachments, so including it here recurses forever.
+    // No foreign key: message_id may point into messages_archive (see ArchivedMessage).
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "message_id", nullable = false)
+    @JoinColumn(name = "message_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Message message;
     
     @Column(name = "file_name", nullable = false)
@@ -39,6 +46,10 @@ public class Attachment {
     @Column(name = "file_path")
     private String filePath;
     
+    /** SHA-256 of the content in the blob store; null if the bytes were never uploaded. */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,47 @@
+package com.ofw.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per committed mutation, written in the same transaction as the change itself.
+ * Replicas poll this table to invalidate their in-process caches.
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+    @Index(name = "idx_change_log_created", columnList = "created_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private String entityType;
+
+    /** External ID (messageId / folderId / userId), not the surrogate key. */
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "change_type", nullable = false, length = 20)
+    private String changeType;
+
+    /** Instance that wrote the entry, so a replica can skip its own changes. */
+    @Column(length = 64)
+    private String origin;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -14,12 +15,14 @@ import java.time.LocalDateTime;
 @Table(name = "folders", indexes = {
     @Index(name = "idx_folder_id", columnList = "folderId"),
     @Index(name = "idx_owner", columnList = "owner_id"),
-    @Index(name = "idx_type", columnList = "folderType")
+    @Index(name = "idx_type", columnList = "folderType"),
+    @Index(name = "idx_folder_updated", columnList = "updated_at, id")
 })
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@BatchSize(size = 100)
 public class Folder {
     
     @Id
@@ -45,6 +48,16 @@ public class Folder {
     @JoinColumn(name = "owner_user_id")
     private User owner;
     
+    /** Messages of this folder in messages_archive; maintained by native updates only. */
+    @Column(name = "archived_message_count", nullable = false, insertable = false, updatable = false,
+        columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer archivedMessageCount;
+    
+    /** Unread messages of this folder in messages_archive; maintained by native updates only. */
+    @Column(name = "archived_unread_count", nullable = false, insertable = false, updatable = false,
+        columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer archivedUnreadCount;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
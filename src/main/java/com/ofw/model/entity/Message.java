@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -18,13 +19,15 @@ import java.util.Set;
     @Index(name = "idx_folder", columnList = "folder_id"),
     @Index(name = "idx_author", columnList = "author_id"),
     @Index(name = "idx_date", columnList = "messageDate"),
-    @Index(name = "idx_read", columnList = "isRead")
+    @Index(name = "idx_read", columnList = "isRead"),
+    @Index(name = "idx_thread_date", columnList = "thread_id, message_date"),
+    @Index(name = "idx_message_updated", columnList = "updated_at, id")
 })
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class Message {
+public class Message implements MessageView {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -43,8 +46,7 @@ public class Message {
     @Column(columnDefinition = "TEXT")
     private String preview;
     
-    @Column(columnDefinition = "LONGTEXT")
-    private String body;
+    // The body lives in message_bodies (see MessageBodyService), so list scans don't load it
     
     @Column(name = "is_draft")
     private Boolean isDraft = false;
@@ -62,16 +64,27 @@ public class Message {
     @JoinColumn(name = "author_user_id", nullable = false)
     private User author;
     
+    /** Assigned by ThreadIndexer; null until the message has been threaded. */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "thread_id")
+    private MessageThread thread;
+    
+    // Batch-fetched: touching one message's recipients loads them for the whole page.
+    // No foreign key to messages: the rows stay put when the message moves to the archive.
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "message_recipients",
         joinColumns = @JoinColumn(name = "message_id"),
-        inverseJoinColumns = @JoinColumn(name = "recipient_user_id")
+        inverseJoinColumns = @JoinColumn(name = "recipient_user_id"),
+        foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT),
+        indexes = @Index(name = "idx_recipient_message", columnList = "recipient_user_id, message_id")
     )
+    @BatchSize(size = 100)
     @Builder.Default
     private Set<User> recipients = new HashSet<>();
     
     @OneToMany(mappedBy = "message", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @Builder.Default
     private Set<Attachment> attachments = new HashSet<>();
     
@@ -0,0 +1,48 @@
+package com.ofw.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compressed message body, kept out of the messages row so list scans never touch it.
+ * Shares its key with messages.id and is only read by the message detail path.
+ */
+@Entity
+@Table(name = "message_bodies")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageBody {
+
+    public static final String ENCODING_IDENTITY = "IDENTITY";
+    public static final String ENCODING_DEFLATE = "DEFLATE";
+
+    /** messages.id (surrogate key), not the external messageId. */
+    @Id
+    @Column(name = "message_id")
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String encoding;
+
+    /** Length of the UTF-8 encoded body before compression. */
+    @Column(name = "original_length", nullable = false)
+    private Integer originalLength;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    @ToString.Exclude
+    private byte[] content;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
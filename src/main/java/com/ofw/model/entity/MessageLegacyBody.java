@@ -0,0 +1,29 @@
+package com.ofw.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read-only view of the legacy messages.body column.
+ *
+ * Message no longer maps the column, so list queries don't select it. Rows not yet moved
+ * to message_bodies are read through this view until MessageBodyMigration has cleared them;
+ * the column can be dropped once it is NULL everywhere.
+ */
+@Entity
+@Immutable
+@Table(name = "messages")
+@Data
+@NoArgsConstructor
+public class MessageLegacyBody {
+
+    // Same generation as Message.id, so generated DDL keeps messages.id auto-increment
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(columnDefinition = "LONGTEXT")
+    private String body;
+}
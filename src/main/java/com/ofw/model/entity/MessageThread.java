@@ -0,0 +1,72 @@
+package com.ofw.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conversation thread, maintained incrementally as messages are ingested.
+ *
+ * Messages with the same normalized subject and the same participants, whose dates fall
+ * within the threading window of each other, belong to one thread. Summary columns are
+ * kept up to date so thread lists never need to aggregate over messages.
+ */
+@Entity
+@Table(name = "message_threads", indexes = {
+    @Index(name = "idx_thread_key", columnList = "thread_key, last_message_date"),
+    @Index(name = "idx_thread_last_date", columnList = "last_message_date")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageThread {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** SHA-256 of normalized subject and participant user IDs. */
+    @Column(name = "thread_key", nullable = false, length = 64)
+    private String threadKey;
+
+    /** Subject without reply/forward prefixes. */
+    @Column(length = 500)
+    private String subject;
+
+    /** Sorted, comma-separated external user IDs of author and recipients. */
+    @Column(name = "participant_ids", columnDefinition = "TEXT")
+    private String participantIds;
+
+    @Column(name = "message_count", nullable = false)
+    @Builder.Default
+    private Integer messageCount = 0;
+
+    @Column(name = "unread_count", nullable = false)
+    @Builder.Default
+    private Integer unreadCount = 0;
+
+    @Column(name = "first_message_date", nullable = false)
+    private LocalDateTime firstMessageDate;
+
+    @Column(name = "last_message_date", nullable = false)
+    private LocalDateTime lastMessageDate;
+
+    /** External messageId of the latest message. */
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
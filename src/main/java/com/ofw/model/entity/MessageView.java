@@ -0,0 +1,40 @@
+package com.ofw.model.entity;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Read view shared by live messages and archived ones, so the mapper and the body
+ * lookup don't care which table a message came from.
+ */
+public interface MessageView {
+
+    /** Surrogate key; the same in messages and messages_archive. */
+    Long getId();
+
+    Long getMessageId();
+
+    Folder getFolder();
+
+    String getSubject();
+
+    String getPreview();
+
+    Boolean getIsDraft();
+
+    Boolean getIsRead();
+
+    Boolean getIsReplied();
+
+    Boolean getCanReply();
+
+    User getAuthor();
+
+    MessageThread getThread();
+
+    Set<User> getRecipients();
+
+    Set<Attachment> getAttachments();
+
+    LocalDateTime getMessageDate();
+}
@@ -0,0 +1,65 @@
+package com.ofw.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A record of an uploaded file that could not be ingested, kept so it can be replayed
+ * on its own instead of re-uploading the whole file.
+ *
+ * The record's JSON is stored Deflate-compressed; rows are deleted once a replay succeeds.
+ */
+@Entity
+@Table(name = "upload_dead_letters", indexes = {
+    @Index(name = "idx_dead_letter_file", columnList = "upload_file_id, record_offset")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "upload_file_id", nullable = false)
+    @ToString.Exclude
+    private UploadFile uploadFile;
+
+    /** Index of the record in the file's data array. */
+    @Column(name = "record_offset", nullable = false)
+    private Integer recordOffset;
+
+    /** Error of the last attempt. */
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 1;
+
+    /** Length of the record's UTF-8 JSON before compression. */
+    @Column(name = "original_length", nullable = false)
+    private Integer originalLength;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    @ToString.Exclude
+    private byte[] payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_attempt_at")
+    private LocalDateTime lastAttemptAt;
+}
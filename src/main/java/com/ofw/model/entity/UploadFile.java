@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "upload_files", indexes = {
     @Index(name = "idx_session", columnList = "session_id"),
-    @Index(name = "idx_status", columnList = "status")
+    @Index(name = "idx_status", columnList = "status"),
+    @Index(name = "idx_content_hash", columnList = "content_hash")
 })
 @Data
 @Builder
@@ -34,6 +35,10 @@ public class UploadFile {
     @Column(name = "file_type")
     private String fileType;
     
+    /** Hex SHA-256 of the uploaded bytes. */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @Column(nullable = false)
     @Builder.Default
     private String status = "PENDING";
@@ -42,6 +47,11 @@ public class UploadFile {
     @Builder.Default
     private Integer recordsCreated = 0;
     
+    /** Records that failed and are waiting in upload_dead_letters. */
+    @Column(name = "dead_letter_count")
+    @Builder.Default
+    private Integer deadLetterCount = 0;
+    
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
     
@@ -61,6 +71,15 @@ public class UploadFile {
         this.processedAt = LocalDateTime.now();
     }
     
+    /**
+     * Mark file as skipped because identical content was already processed.
+     */
+    public void markSkipped() {
+        this.status = "SKIPPED";
+        this.recordsCreated = 0;
+        this.processedAt = LocalDateTime.now();
+    }
+    
     /**
      * Mark file as failed with error message.
      */
@@ -69,4 +88,19 @@ public class UploadFile {
         this.errorMessage = errorMessage;
         this.processedAt = LocalDateTime.now();
     }
+    
+    /**
+     * Count a record that was moved to the dead letters.
+     */
+    public void incrementDeadLetters() {
+        this.deadLetterCount++;
+    }
+    
+    /**
+     * Count a dead-lettered record that was replayed successfully.
+     */
+    public void deadLetterReplayed() {
+        this.deadLetterCount--;
+        this.recordsCreated++;
+    }
 }
@@ -29,6 +29,13 @@ public class UploadSession {
     @Column(name = "session_id", nullable = false, unique = true)
     private String sessionId;
     
+    /**
+     * Client-supplied Idempotency-Key; a repeated key returns this session's result.
+     * Only released (set to null) by UploadSessionRepository.abandon, never by a save.
+     */
+    @Column(name = "idempotency_key", unique = true, length = 100, updatable = false)
+    private String idempotencyKey;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "uploaded_by_user_id")
     private User uploadedBy;
@@ -63,6 +70,10 @@ public class UploadSession {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
     
+    /** Last sign of life of the upload running this session; null for older sessions. */
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+    
     /**
      * Mark session as completed.
      */
@@ -0,0 +1,189 @@
+package com.ofw.repository;
+
+import com.ofw.model.entity.ArchivedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads messages_archive and moves rows between it and messages.
+ *
+ * Page queries take an explicit offset because they continue a list where the hot rows
+ * in messages ended, which is rarely on an archive page boundary.
+ */
+@Repository
+public interface ArchivedMessageRepository extends JpaRepository<ArchivedMessage, Long> {
+
+    String COLUMNS = "id, message_id, folder_id, subject, preview, is_draft, is_read, is_replied, "
+        + "can_reply, author_user_id, thread_id, message_date, created_at, updated_at";
+
+    /** As in MessageRepository, on messages_archive. */
+    String SENT_BY_USER = "FROM message_recipients mr JOIN messages_archive m ON m.id = mr.message_id "
+        + "WHERE mr.recipient_user_id = :otherId AND m.author_user_id = :userId";
+    String SENT_BY_OTHER = "FROM message_recipients mr JOIN messages_archive m ON m.id = mr.message_id "
+        + "WHERE mr.recipient_user_id = :userId AND m.author_user_id = :otherId";
+    String SENT_TO_SELF = "FROM message_recipients mr JOIN messages_archive m ON m.id = mr.message_id "
+        + "WHERE mr.recipient_user_id = :userId AND m.author_user_id = :userId";
+
+    Optional<ArchivedMessage> findByMessageId(Long messageId);
+
+    boolean existsByMessageId(Long messageId);
+
+    /**
+     * Date of the newest archived message, or null if the archive is empty. One index read
+     * on idx_archive_date.
+     */
+    @Query("SELECT MAX(m.messageDate) FROM ArchivedMessage m")
+    LocalDateTime findNewestDate();
+
+    /**
+     * Archived messages of a folder (folders.id), newest first. Served by idx_archive_folder_date.
+     */
+    @Query(value = "SELECT * FROM messages_archive WHERE folder_id = :folderId "
+            + "ORDER BY message_date DESC, id DESC LIMIT :limit OFFSET :offset",
+        nativeQuery = true)
+    List<ArchivedMessage> findByFolder(@Param("folderId") Long folderId,
+                                       @Param("offset") long offset,
+                                       @Param("limit") int limit);
+
+    /**
+     * All archived messages, newest first. Served by idx_archive_date.
+     */
+    @Query(value = "SELECT * FROM messages_archive ORDER BY message_date DESC, id DESC LIMIT :limit OFFSET :offset",
+        nativeQuery = true)
+    List<ArchivedMessage> findNewest(@Param("offset") long offset, @Param("limit") int limit);
+
+    /**
+     * Archived messages where the user (users.id) is a recipient, newest first.
+     */
+    @Query(value = "SELECT m.* FROM message_recipients mr JOIN messages_archive m ON m.id = mr.message_id "
+            + "WHERE mr.recipient_user_id = :userId ORDER BY m.message_date DESC, m.id DESC "
+            + "LIMIT :limit OFFSET :offset",
+        nativeQuery = true)
+    List<ArchivedMessage> findReceivedBy(@Param("userId") Long userId,
+                                         @Param("offset") long offset,
+                                         @Param("limit") int limit);
+
+    /**
+     * Archived messages one user (users.id) sent to the other, in either direction, newest first.
+     */
+    @Query(value = "SELECT * FROM (SELECT m.* " + SENT_BY_USER + " UNION ALL SELECT m.* " + SENT_BY_OTHER
+            + ") t ORDER BY t.message_date DESC, t.id DESC LIMIT :limit OFFSET :offset",
+        nativeQuery = true)
+    List<ArchivedMessage> findBetween(@Param("userId") Long userId,
+                                      @Param("otherId") Long otherId,
+                                      @Param("offset") long offset,
+                                      @Param("limit") int limit);
+
+    @Query(value = "SELECT (SELECT COUNT(*) " + SENT_BY_USER + ") + (SELECT COUNT(*) " + SENT_BY_OTHER + ")",
+        nativeQuery = true)
+    long countBetween(@Param("userId") Long userId, @Param("otherId") Long otherId);
+
+    /**
+     * Archived messages a user (users.id) sent to themselves, newest first.
+     */
+    @Query(value = "SELECT m.* " + SENT_TO_SELF + " ORDER BY m.message_date DESC, m.id DESC "
+            + "LIMIT :limit OFFSET :offset",
+        nativeQuery = true)
+    List<ArchivedMessage> findSentToSelf(@Param("userId") Long userId,
+                                         @Param("offset") long offset,
+                                         @Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) " + SENT_TO_SELF, nativeQuery = true)
+    long countSentToSelf(@Param("userId") Long userId);
+
+    /**
+     * Archived messages of a thread, in date order. Served by idx_archive_thread_date.
+     */
+    @Query("SELECT DISTINCT m FROM ArchivedMessage m JOIN FETCH m.author JOIN FETCH m.folder "
+        + "LEFT JOIN FETCH m.recipients WHERE m.thread.id = :threadId ORDER BY m.messageDate, m.id")
+    List<ArchivedMessage> findThreadMembers(@Param("threadId") Long threadId);
+
+    /**
+     * Oldest messages dated before the cutoff whose body has been migrated, walked on idx_date.
+     */
+    @Query(value = "SELECT id FROM messages WHERE message_date < :cutoff AND body IS NULL "
+            + "ORDER BY message_date, id LIMIT :limit",
+        nativeQuery = true)
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /**
+     * Number of messages and unread messages per folder (folders.id) among the given messages.
+     *
+     * @return Rows of [folder_id, count, unread count]
+     */
+    @Query(value = "SELECT folder_id, COUNT(*), SUM(CASE WHEN is_read = TRUE THEN 0 ELSE 1 END) "
+            + "FROM messages WHERE id IN (:ids) GROUP BY folder_id",
+        nativeQuery = true)
+    List<Object[]> countByFolder(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO messages_archive (" + COLUMNS + ") SELECT " + COLUMNS
+            + " FROM messages WHERE id IN (:ids)",
+        nativeQuery = true)
+    int copyFromMessages(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM messages WHERE id IN (:ids)", nativeQuery = true)
+    int deleteFromMessages(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO messages (" + COLUMNS + ") SELECT " + COLUMNS
+            + " FROM messages_archive WHERE id = :id",
+        nativeQuery = true)
+    int copyToMessages(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "DELETE FROM messages_archive WHERE id = :id", nativeQuery = true)
+    int deleteArchived(@Param("id") Long id);
+
+    /**
+     * Highest message id referenced by recipients, attachments or bodies; where the orphan
+     * sweep stops.
+     */
+    @Query(value = "SELECT GREATEST("
+            + "COALESCE((SELECT MAX(message_id) FROM message_recipients), 0), "
+            + "COALESCE((SELECT MAX(message_id) FROM attachments), 0), "
+            + "COALESCE((SELECT MAX(message_id) FROM message_bodies), 0))",
+        nativeQuery = true)
+    long findMaxReferencedId();
+
+    /**
+     * Delete recipients with a message_id in (fromId, toId] whose message is in neither
+     * messages nor messages_archive. Recipients, attachments and bodies have no foreign key
+     * to messages, so deleting a folder or user cascades to its messages but not on to them.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM message_recipients WHERE message_id > :fromId AND message_id <= :toId "
+            + "AND message_id NOT IN (SELECT id FROM messages WHERE id > :fromId AND id <= :toId) "
+            + "AND message_id NOT IN (SELECT id FROM messages_archive WHERE id > :fromId AND id <= :toId)",
+        nativeQuery = true)
+    int deleteOrphanRecipients(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Same as {@link #deleteOrphanRecipients}, for attachments.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM attachments WHERE message_id > :fromId AND message_id <= :toId "
+            + "AND message_id NOT IN (SELECT id FROM messages WHERE id > :fromId AND id <= :toId) "
+            + "AND message_id NOT IN (SELECT id FROM messages_archive WHERE id > :fromId AND id <= :toId)",
+        nativeQuery = true)
+    int deleteOrphanAttachments(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Same as {@link #deleteOrphanRecipients}, for bodies.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM message_bodies WHERE message_id > :fromId AND message_id <= :toId "
+            + "AND message_id NOT IN (SELECT id FROM messages WHERE id > :fromId AND id <= :toId) "
+            + "AND message_id NOT IN (SELECT id FROM messages_archive WHERE id > :fromId AND id <= :toId)",
+        nativeQuery = true)
+    int deleteOrphanBodies(@Param("fromId") long fromId, @Param("toId") long toId);
+}
@@ -0,0 +1,11 @@
+package com.ofw.repository;
+
+import com.ofw.model.entity.Attachment;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Lazy
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+}
@@ -0,0 +1,30 @@
+package com.ofw.repository;
+
+import com.ofw.model.entity.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    List<ChangeLogEntry> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<ChangeLogEntry> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT MAX(e.id) FROM ChangeLogEntry e")
+    Long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChangeLogEntry e WHERE e.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
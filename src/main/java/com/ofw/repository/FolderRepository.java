@@ -1,9 +1,14 @@
 package com.ofw.repository;
 
 import com.ofw.model.entity.Folder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +22,31 @@ public interface FolderRepository extends JpaRepository<Folder, Long> {
     List<Folder> findByOwnerIdOrderByFolderOrderAsc(Long ownerId);
     
     boolean existsByFolderId(Long folderId);
+    
+    /**
+     * Folders changed after the (updatedAt, id) cursor and before the horizon, in cursor order.
+     */
+    @Query("SELECT f FROM Folder f WHERE f.updatedAt >= :updatedAt "
+        + "AND (f.updatedAt > :updatedAt OR f.id > :id) AND f.updatedAt < :horizon "
+        + "ORDER BY f.updatedAt, f.id")
+    List<Folder> findChangedSince(@Param("updatedAt") LocalDateTime updatedAt,
+                                  @Param("id") Long id,
+                                  @Param("horizon") LocalDateTime horizon,
+                                  Pageable pageable);
+    
+    /**
+     * Total of archived_message_count over all folders.
+     */
+    @Query("SELECT COALESCE(SUM(f.archivedMessageCount), 0) FROM Folder f")
+    long sumArchivedMessageCount();
+    
+    // Native because the columns are read-only in the entity. Keeping updated_at: moving
+    // messages between tables is not a change to the folder.
+    @Modifying
+    @Query(value = "UPDATE folders SET archived_message_count = archived_message_count + :delta, "
+            + "archived_unread_count = archived_unread_count + :unreadDelta, "
+            + "updated_at = updated_at WHERE id = :id",
+        nativeQuery = true)
+    int addArchivedMessages(@Param("id") Long id, @Param("delta") long delta,
+                            @Param("unreadDelta") long unreadDelta);
 }
@@ -0,0 +1,22 @@
+package com.ofw.repository;
+
+import com.ofw.model.entity.MessageBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MessageBodyRepository extends JpaRepository<MessageBody, Long> {
+
+    @Query("SELECT b.id FROM MessageBody b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM MessageBody b WHERE b.id = :id")
+    int deleteByMessageKey(@Param("id") Long id);
+}
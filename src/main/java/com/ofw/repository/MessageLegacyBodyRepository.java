@@ -0,0 +1,28 @@
+package com.ofw.repository;
+
+import com.ofw.model.entity.MessageLegacyBody;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MessageLegacyBodyRepository extends JpaRepository<MessageLegacyBody, Long> {
+
+    /**
+     * Next batch of rows still holding a legacy body, in primary key order (keyset pagination).
+     */
+    @Query("SELECT b FROM MessageLegacyBody b WHERE b.id > :afterId AND b.body IS NOT NULL ORDER BY b.id")
+    List<MessageLegacyBody> findBatchAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Native because the entity is immutable. Assigning updated_at to itself stops MySQL's
+    // ON UPDATE CURRENT_TIMESTAMP: moving a body is not a change to the message.
+    @Modifying
+    @Query(value = "UPDATE messages SET body = NULL, updated_at = updated_at WHERE id IN (:ids)", nativeQuery = true)
+    int clearBodies(@Param("ids") Collection<Long> ids);
+}
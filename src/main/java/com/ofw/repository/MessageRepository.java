@@ -4,14 +4,27 @@ import com.ofw.model.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
     
+    /** Messages the user (:userId) sent to the other (:otherId), from the receiver's recipient rows. */
+    String SENT_BY_USER = "FROM message_recipients mr JOIN messages m ON m.id = mr.message_id "
+        + "WHERE mr.recipient_user_id = :otherId AND m.author_user_id = :userId";
+    String SENT_BY_OTHER = "FROM message_recipients mr JOIN messages m ON m.id = mr.message_id "
+        + "WHERE mr.recipient_user_id = :userId AND m.author_user_id = :otherId";
+    String SENT_TO_SELF = "FROM message_recipients mr JOIN messages m ON m.id = mr.message_id "
+        + "WHERE mr.recipient_user_id = :userId AND m.author_user_id = :userId";
+    
     Optional<Message> findByMessageId(Long messageId);
     
     Page<Message> findByFolderIdOrderByMessageDateDesc(Long folderId, Pageable pageable);
@@ -19,5 +32,160 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     @Query("SELECT COUNT(m) FROM Message m WHERE m.folder.id = :folderId AND m.isRead = false")
     long countUnreadByFolderId(Long folderId);
     
+    long countByFolderId(Long folderId);
+    
     boolean existsByMessageId(Long messageId);
+    
+    /**
+     * All messages of a thread in date order, with everything the list DTO needs.
+     * Served by idx_thread_date.
+     */
+    @Query("SELECT DISTINCT m FROM Message m JOIN FETCH m.author JOIN FETCH m.folder "
+        + "LEFT JOIN FETCH m.recipients WHERE m.thread.id = :threadId ORDER BY m.messageDate, m.id")
+    List<Message> findThreadMembers(@Param("threadId") Long threadId);
+    
+    /**
+     * Messages where the user (users.id) is a recipient, newest first.
+     * Driven by idx_recipient_message. Without a count: see countReceivedBy.
+     */
+    @Query(value = "SELECT m.* FROM message_recipients mr JOIN messages m ON m.id = mr.message_id "
+            + "WHERE mr.recipient_user_id = :userId ORDER BY m.message_date DESC, m.id DESC",
+        nativeQuery = true)
+    List<Message> findReceivedBy(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * Messages the user (users.id) received, archived ones included.
+     * Never touches messages: recipients stay in place when a message is archived.
+     */
+    @Query(value = "SELECT COUNT(*) FROM message_recipients mr WHERE mr.recipient_user_id = :userId",
+        nativeQuery = true)
+    long countReceivedBy(@Param("userId") Long userId);
+    
+    /**
+     * Messages of a folder (folders.id) dated after the date. With the next query, splits a
+     * folder list where messages_archive starts (see MessageService).
+     */
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.folder.id = :folderId AND m.messageDate > :date")
+    long countByFolderNewerThan(@Param("folderId") Long folderId, @Param("date") LocalDateTime date);
+    
+    /**
+     * Messages of a folder (folders.id) dated up to the date, newest first.
+     */
+    @Query("SELECT m FROM Message m WHERE m.folder.id = :folderId AND m.messageDate <= :date "
+        + "ORDER BY m.messageDate DESC, m.id DESC")
+    List<Message> findByFolderNotNewerThan(@Param("folderId") Long folderId, @Param("date") LocalDateTime date,
+                                           Pageable pageable);
+    
+    /**
+     * Messages dated after the date; the all-messages list's split, as for a folder.
+     */
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.messageDate > :date")
+    long countNewerThan(@Param("date") LocalDateTime date);
+    
+    /**
+     * Messages dated up to the date, newest first.
+     */
+    @Query("SELECT m FROM Message m WHERE m.messageDate <= :date ORDER BY m.messageDate DESC, m.id DESC")
+    List<Message> findNotNewerThan(@Param("date") LocalDateTime date, Pageable pageable);
+    
+    /**
+     * Messages the user (users.id) received dated after the date; the received list's split.
+     */
+    @Query(value = "SELECT COUNT(*) FROM message_recipients mr JOIN messages m ON m.id = mr.message_id "
+            + "WHERE mr.recipient_user_id = :userId AND m.message_date > :date",
+        nativeQuery = true)
+    long countReceivedByNewerThan(@Param("userId") Long userId, @Param("date") LocalDateTime date);
+    
+    /**
+     * Messages the user (users.id) received dated up to the date, newest first.
+     */
+    @Query(value = "SELECT m.* FROM message_recipients mr JOIN messages m ON m.id = mr.message_id "
+            + "WHERE mr.recipient_user_id = :userId AND m.message_date <= :date "
+            + "ORDER BY m.message_date DESC, m.id DESC",
+        nativeQuery = true)
+    List<Message> findReceivedByNotNewerThan(@Param("userId") Long userId, @Param("date") LocalDateTime date,
+                                             Pageable pageable);
+    
+    /**
+     * Messages one user (users.id) sent to the other, in either direction, newest first.
+     * Each branch starts from the receiver's idx_recipient_message entries and checks the
+     * author by primary key, so neither side scans a whole mailbox.
+     */
+    @Query(value = "SELECT * FROM (SELECT m.* " + SENT_BY_USER + " UNION ALL SELECT m.* " + SENT_BY_OTHER
+            + ") t ORDER BY t.message_date DESC, t.id DESC",
+        countQuery = "SELECT (SELECT COUNT(*) " + SENT_BY_USER + ") + (SELECT COUNT(*) " + SENT_BY_OTHER + ")",
+        nativeQuery = true)
+    Page<Message> findBetween(@Param("userId") Long userId, @Param("otherId") Long otherId, Pageable pageable);
+    
+    /**
+     * Messages between the users dated after the date; the between list's split.
+     */
+    @Query(value = "SELECT (SELECT COUNT(*) " + SENT_BY_USER + " AND m.message_date > :date) + "
+            + "(SELECT COUNT(*) " + SENT_BY_OTHER + " AND m.message_date > :date)",
+        nativeQuery = true)
+    long countBetweenNewerThan(@Param("userId") Long userId, @Param("otherId") Long otherId,
+                               @Param("date") LocalDateTime date);
+    
+    /**
+     * Messages between the users dated up to the date, newest first.
+     */
+    @Query(value = "SELECT * FROM (SELECT m.* " + SENT_BY_USER + " AND m.message_date <= :date "
+            + "UNION ALL SELECT m.* " + SENT_BY_OTHER + " AND m.message_date <= :date"
+            + ") t ORDER BY t.message_date DESC, t.id DESC",
+        nativeQuery = true)
+    List<Message> findBetweenNotNewerThan(@Param("userId") Long userId, @Param("otherId") Long otherId,
+                                          @Param("date") LocalDateTime date, Pageable pageable);
+    
+    /**
+     * Messages a user (users.id) sent to themselves, newest first: findBetween for one user,
+     * where both of its branches would return the same rows.
+     */
+    @Query(value = "SELECT m.* " + SENT_TO_SELF + " ORDER BY m.message_date DESC, m.id DESC",
+        countQuery = "SELECT COUNT(*) " + SENT_TO_SELF,
+        nativeQuery = true)
+    Page<Message> findSentToSelf(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * Messages the user sent to themselves dated after the date; that list's split.
+     */
+    @Query(value = "SELECT COUNT(*) " + SENT_TO_SELF + " AND m.message_date > :date", nativeQuery = true)
+    long countSentToSelfNewerThan(@Param("userId") Long userId, @Param("date") LocalDateTime date);
+    
+    /**
+     * Messages the user sent to themselves dated up to the date, newest first.
+     */
+    @Query(value = "SELECT m.* " + SENT_TO_SELF + " AND m.message_date <= :date "
+            + "ORDER BY m.message_date DESC, m.id DESC",
+        nativeQuery = true)
+    List<Message> findSentToSelfNotNewerThan(@Param("userId") Long userId, @Param("date") LocalDateTime date,
+                                             Pageable pageable);
+    
+    /**
+     * Messages changed after the (updatedAt, id) cursor and before the horizon, in cursor
+     * order. One range scan on idx_message_updated.
+     */
+    @Query("SELECT m FROM Message m WHERE m.updatedAt >= :updatedAt "
+        + "AND (m.updatedAt > :updatedAt OR m.id > :id) AND m.updatedAt < :horizon "
+        + "ORDER BY m.updatedAt, m.id")
+    List<Message> findChangedSince(@Param("updatedAt") LocalDateTime updatedAt,
+                                   @Param("id") Long id,
+                                   @Param("horizon") LocalDateTime horizon,
+                                   Pageable pageable);
+    
+    /**
+     * Claim the next batch of messages not yet assigned to a thread (keyset pagination on
+     * id). Rows another replica's backfill has claimed are skipped, not waited for.
+     * Native because the limit has to come before FOR UPDATE.
+     */
+    @Query(value = "SELECT * FROM messages WHERE thread_id IS NULL AND id > :afterId "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    List<Message> claimUnthreadedAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    // Assigning updated_at to itself stops MySQL's ON UPDATE CURRENT_TIMESTAMP: threading a
+    // stored message is not a change to it, and must not put it in every sync.
+    @Modifying
+    @Query(value = "UPDATE messages SET thread_id = :threadId, updated_at = updated_at WHERE id IN (:ids)",
+        nativeQuery = true)
+    int assignThread(@Param("ids") Collection<Long> ids, @Param("threadId") Long threadId);
 }
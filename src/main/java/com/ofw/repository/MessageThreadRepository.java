@@ -0,0 +1,49 @@
+package com.ofw.repository;
+
+import com.ofw.model.entity.MessageThread;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MessageThreadRepository extends JpaRepository<MessageThread, Long> {
+
+    /**
+     * Threads with the given key whose date range comes within the window of a message.
+     * Served by idx_thread_key.
+     *
+     * Does not auto-flush: ingestion calls this once per message, and threads changed since
+     * the last flush are looked up in the caller's cache first.
+     *
+     * Locks the thread until the caller commits, so concurrent uploads and the backfill
+     * update its counters one after another.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+    @Query("SELECT t FROM MessageThread t WHERE t.threadKey = :threadKey "
+        + "AND t.lastMessageDate >= :earliest AND t.firstMessageDate <= :latest "
+        + "ORDER BY t.lastMessageDate DESC")
+    List<MessageThread> findCandidates(@Param("threadKey") String threadKey,
+                                       @Param("earliest") LocalDateTime earliest,
+                                       @Param("latest") LocalDateTime latest,
+                                       Pageable pageable);
+
+    Page<MessageThread> findAllByOrderByLastMessageDateDescIdDesc(Pageable pageable);
+
+    @Query(value = "SELECT t FROM MessageThread t WHERE EXISTS "
+            + "(SELECT 1 FROM Message m WHERE m.thread = t AND m.folder.folderId = :folderId) "
+            + "ORDER BY t.lastMessageDate DESC, t.id DESC",
+        countQuery = "SELECT COUNT(t) FROM MessageThread t WHERE EXISTS "
+            + "(SELECT 1 FROM Message m WHERE m.thread = t AND m.folder.folderId = :folderId)")
+    Page<MessageThread> findByFolderId(@Param("folderId") Long folderId, Pageable pageable);
+}
@@ -0,0 +1,27 @@
+package com.ofw.repository;
+
+import com.ofw.model.entity.SyncTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    @Query("SELECT t FROM SyncTombstone t WHERE t.id > :afterId AND t.deletedAt < :horizon ORDER BY t.id")
+    List<SyncTombstone> findChangedSince(@Param("afterId") Long afterId,
+                                         @Param("horizon") LocalDateTime horizon,
+                                         Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SyncTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
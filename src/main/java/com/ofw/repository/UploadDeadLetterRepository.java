@@ -0,0 +1,30 @@
+package com.ofw.repository;
+
+import com.ofw.model.entity.UploadDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UploadDeadLetterRepository extends JpaRepository<UploadDeadLetter, Long> {
+
+    /**
+     * Dead letters of a session (upload_sessions.id), in file and record order.
+     */
+    @Query("SELECT d FROM UploadDeadLetter d JOIN FETCH d.uploadFile f "
+        + "WHERE f.session.id = :sessionId ORDER BY f.id, d.recordOffset")
+    List<UploadDeadLetter> findBySession(@Param("sessionId") Long sessionId);
+
+    /**
+     * Bulk delete of the dead letters of the given sessions (upload_sessions.id).
+     */
+    @Modifying
+    @Query("DELETE FROM UploadDeadLetter d WHERE d.uploadFile.id IN "
+        + "(SELECT f.id FROM UploadFile f WHERE f.session.id IN :sessionIds)")
+    int deleteBySessionIds(@Param("sessionIds") Collection<Long> sessionIds);
+}
@@ -0,0 +1,23 @@
+package com.ofw.repository;
+
+import com.ofw.model.entity.UploadFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface UploadFileRepository extends JpaRepository<UploadFile, Long> {
+    
+    boolean existsByContentHashAndStatus(String contentHash, String status);
+    
+    /**
+     * Bulk delete of the files of the given sessions (upload_sessions.id), through idx_session.
+     */
+    @Modifying
+    @Query("DELETE FROM UploadFile f WHERE f.session.id IN :sessionIds")
+    int deleteBySessionIds(@Param("sessionIds") Collection<Long> sessionIds);
+}
@@ -1,13 +1,59 @@
 package com.ofw.repository;
 
 import com.ofw.model.entity.UploadSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UploadSessionRepository extends JpaRepository<UploadSession, Long> {
     
     Optional<UploadSession> findBySessionId(String sessionId);
+    
+    Optional<UploadSession> findByIdempotencyKey(String idempotencyKey);
+    
+    /**
+     * Renew the lease of a running session.
+     */
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.heartbeatAt = :now WHERE s.id = :id")
+    int heartbeat(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    /**
+     * Fail a session whose upload stopped renewing its lease before the cutoff, and release its
+     * Idempotency-Key for a new session. Returns 0 when the session finished or renewed its
+     * lease in the meantime, or another request abandoned it first.
+     */
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = 'FAILED', s.idempotencyKey = NULL, "
+        + "s.notes = :reason, s.completedAt = :now "
+        + "WHERE s.id = :id AND s.status = 'IN_PROGRESS' "
+        + "AND COALESCE(s.heartbeatAt, s.createdAt) < :cutoff")
+    int abandon(@Param("id") Long id,
+                @Param("cutoff") LocalDateTime cutoff,
+                @Param("reason") String reason,
+                @Param("now") LocalDateTime now);
+    
+    /**
+     * Next batch of sessions created before the cutoff, in primary key order (keyset pagination).
+     */
+    @Query("SELECT s.id FROM UploadSession s WHERE s.id > :afterId AND s.createdAt < :cutoff ORDER BY s.id")
+    List<Long> findExpiredIds(@Param("afterId") Long afterId,
+                              @Param("cutoff") LocalDateTime cutoff,
+                              Pageable pageable);
+    
+    /**
+     * Bulk delete; the sessions' files must be deleted first.
+     */
+    @Modifying
+    @Query("DELETE FROM UploadSession s WHERE s.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
@@ -4,6 +4,8 @@ import com.ofw.model.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,6 +17,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByUserId(Long userId);
     
+    List<User> findByUserIdIn(Collection<Long> userIds);
+    
     Optional<User> findByUsername(String username);
     
     Optional<User> findByEmail(String email);
@@ -0,0 +1,103 @@
+package com.ofw.service;
+
+import com.ofw.model.dto.AttachmentDTO;
+import com.ofw.model.entity.Attachment;
+import com.ofw.model.entity.Message;
+import com.ofw.repository.AttachmentRepository;
+import com.ofw.repository.MessageRepository;
+import com.ofw.service.archive.MessageArchiver;
+import com.ofw.service.blob.BlobStore;
+import com.ofw.service.changelog.ChangeLogService;
+import com.ofw.service.mapper.EntityMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Service for attachment content.
+ * Attachment bytes live in the BlobStore; the attachments table only references them.
+ */
+@Service
+@Lazy
+@RequiredArgsConstructor
+@Slf4j
+public class AttachmentService {
+
+    private final AttachmentRepository attachmentRepository;
+    private final MessageRepository messageRepository;
+    private final BlobStore blobStore;
+    private final MessageArchiver messageArchiver;
+    private final ChangeLogService changeLog;
+    private final EntityMapper mapper;
+
+    /**
+     * Resolved attachment content, ready to be streamed.
+     */
+    public record AttachmentContent(Path path, long size, String hash, String fileName, String contentType) {
+    }
+
+    /**
+     * Store a file and attach it to a message.
+     *
+     * @param messageId Message ID
+     * @param file Uploaded file
+     * @return Attachment DTO including its download URL
+     */
+    @Transactional
+    public AttachmentDTO addAttachment(Long messageId, MultipartFile file) throws IOException {
+        Message message = messageRepository.findByMessageId(messageId)
+            .or(() -> messageArchiver.restore(messageId)
+                ? messageRepository.findByMessageId(messageId)
+                : Optional.empty())
+            .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
+
+        BlobStore.StoredBlob blob = blobStore.store(file);
+
+        Attachment attachment = Attachment.builder()
+            .fileName(file.getOriginalFilename() != null ? file.getOriginalFilename() : blob.hash())
+            .fileSize(blob.size())
+            .contentType(file.getContentType() != null ? file.getContentType() : "application/octet-stream")
+            .filePath(blobStore.relativePath(blob.hash()))
+            .contentHash(blob.hash())
+            .build();
+        message.addAttachment(attachment);
+        attachmentRepository.save(attachment);
+
+        changeLog.record(ChangeLogService.ENTITY_MESSAGE, messageId, ChangeLogService.CHANGE_UPDATED);
+        changeLog.record(ChangeLogService.ENTITY_FOLDER, message.getFolder().getFolderId(),
+            ChangeLogService.CHANGE_UPDATED);
+
+        return mapper.toAttachmentDTO(attachment);
+    }
+
+    /**
+     * Look up the stored content of an attachment.
+     *
+     * @param attachmentId Attachment ID
+     * @throws IllegalArgumentException if the attachment or its content does not exist
+     */
+    @Transactional(readOnly = true)
+    public AttachmentContent getContent(Long attachmentId) {
+        Attachment attachment = attachmentRepository.findById(attachmentId)
+            .orElseThrow(() -> new IllegalArgumentException("Attachment not found: " + attachmentId));
+
+        if (attachment.getContentHash() == null || !blobStore.exists(attachment.getContentHash())) {
+            throw new IllegalArgumentException("Attachment content not available: " + attachmentId);
+        }
+
+        Path path = blobStore.resolve(attachment.getContentHash());
+        return new AttachmentContent(
+            path,
+            path.toFile().length(),
+            attachment.getContentHash(),
+            attachment.getFileName(),
+            attachment.getContentType());
+    }
+}
@@ -5,27 +5,34 @@ import com.ofw.model.dto.FoldersResponseDTO;
 import com.ofw.model.entity.Folder;
 import com.ofw.repository.FolderRepository;
 import com.ofw.repository.MessageRepository;
+import com.ofw.service.cache.SingleFlight;
+import com.ofw.service.folder.FolderCatalog;
 import com.ofw.service.mapper.EntityMapper;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Service for folder operations.
  * Implements business logic layer between controller and repository.
+ *
+ * Folders come from the in-memory FolderCatalog, so reads without counts don't touch
+ * the database. Counts, which change with every message, are always queried;
+ * identical concurrent requests for them share one computation (SingleFlight).
  */
 @Service
 @RequiredArgsConstructor
-@Slf4j
-@Transactional(readOnly = true)
 public class FolderService {
     
     private final FolderRepository folderRepository;
     private final MessageRepository messageRepository;
+    private final FolderCatalog folderCatalog;
+    private final SingleFlight singleFlight;
     private final EntityMapper mapper;
     
     /**
@@ -35,51 +42,56 @@ public class FolderService {
      * @return Folders response with system and user folders
      */
     public FoldersResponseDTO getFolders(boolean includeCounts) {
-        log.info("Getting folders, includeCounts={}", includeCounts);
-        
-        List<Folder> systemFolders = folderRepository.findByIsSystemFolderTrue();
-        List<Folder> userFolders = folderRepository.findAll().stream()
-            .filter(f -> !f.getIsSystemFolder())
-            .collect(Collectors.toList());
+        return includeCounts
+            ? singleFlight.execute("folders", Boolean.TRUE, () -> buildFolders(true))
+            : buildFolders(false);
+    }
+    
+    private FoldersResponseDTO buildFolders(boolean includeCounts) {
+        // Archived counts are kept in the folder rows; one read covers all folders
+        Map<Long, Folder> rows = includeCounts
+            ? folderRepository.findAll().stream().collect(Collectors.toMap(Folder::getId, Function.identity()))
+            : Map.of();
         
-        FoldersResponseDTO response = FoldersResponseDTO.builder()
-            .systemFolders(systemFolders.stream()
-                .map(folder -> toFolderDTO(folder, includeCounts))
+        return FoldersResponseDTO.builder()
+            .systemFolders(folderCatalog.getSystemFolders().stream()
+                .map(folder -> toFolderDTO(folder, rows.get(folder.id())))
                 .collect(Collectors.toList()))
-            .userFolders(userFolders.stream()
-                .map(folder -> toFolderDTO(folder, includeCounts))
+            .userFolders(folderCatalog.getUserFolders().stream()
+                .map(folder -> toFolderDTO(folder, rows.get(folder.id())))
                 .collect(Collectors.toList()))
             .build();
-        
-        log.info("Returning {} system folders and {} user folders", 
-            response.getSystemFolders().size(), 
-            response.getUserFolders().size());
-        
-        return response;
     }
     
     /**
-     * Get a single folder by ID.
+     * Get a single folder by ID, from the catalog or, for a folder the catalog hasn't picked
+     * up yet, from its row.
      */
     public FolderDTO getFolder(Long folderId, boolean includeCounts) {
-        log.info("Getting folder {}", folderId);
-        
-        Folder folder = folderRepository.findByFolderId(folderId)
-            .orElseThrow(() -> new IllegalArgumentException("Folder not found: " + folderId));
+        FolderCatalog.Entry folder = folderCatalog.find(folderId).orElse(null);
+        if (folder == null) {
+            // Created but not yet in the catalog, which is rebuilt asynchronously
+            Folder row = folderRepository.findByFolderId(folderId)
+                .orElseThrow(() -> new IllegalArgumentException("Folder not found: " + folderId));
+            return toFolderDTO(FolderCatalog.Entry.of(row), includeCounts ? row : null);
+        }
         
-        return toFolderDTO(folder, includeCounts);
+        return toFolderDTO(folder, includeCounts ? folderRepository.findById(folder.id()).orElse(null) : null);
     }
     
     /**
-     * Convert folder entity to DTO with optional counts.
+     * Convert a catalog folder to DTO, with counts when its row is given.
      */
-    private FolderDTO toFolderDTO(Folder folder, boolean includeCounts) {
+    private FolderDTO toFolderDTO(FolderCatalog.Entry folder, Folder row) {
         Integer unreadCount = null;
         Integer totalCount = null;
         
-        if (includeCounts) {
-            unreadCount = (int) messageRepository.countUnreadByFolderId(folder.getId());
-            totalCount = (int) messageRepository.countByFolderId(folder.getId());
+        if (row != null) {
+            // Archived messages are counted in the folder row, not by scanning the archive
+            unreadCount = (int) messageRepository.countUnreadByFolderId(folder.id())
+                + Objects.requireNonNullElse(row.getArchivedUnreadCount(), 0);
+            totalCount = (int) messageRepository.countByFolderId(folder.id())
+                + Objects.requireNonNullElse(row.getArchivedMessageCount(), 0);
         }
         
         return mapper.toFolderDTO(folder, unreadCount, totalCount);
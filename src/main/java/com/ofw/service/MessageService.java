@@ -3,11 +3,22 @@ package com.ofw.service;
 import com.ofw.model.dto.MessageDetailDTO;
 import com.ofw.model.dto.MessageListItemDTO;
 import com.ofw.model.dto.MessagesResponseDTO;
+import com.ofw.model.entity.ArchivedMessage;
+import com.ofw.model.entity.Folder;
 import com.ofw.model.entity.Message;
+import com.ofw.model.entity.MessageView;
+import com.ofw.model.entity.User;
+import com.ofw.repository.ArchivedMessageRepository;
+import com.ofw.repository.FolderRepository;
 import com.ofw.repository.MessageRepository;
+import com.ofw.repository.UserRepository;
+import com.ofw.service.archive.MessageArchiver;
+import com.ofw.service.body.MessageBodyService;
+import com.ofw.service.cache.MessagePageCache;
+import com.ofw.service.changelog.ChangeLogService;
 import com.ofw.service.mapper.EntityMapper;
+import com.ofw.service.thread.ThreadIndexer;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,19 +26,46 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
  * Service for message operations.
  * Implements business logic layer between controller and repository.
+ *
+ * Newest-first lists read messages and merge in messages_archive by date only once a page
+ * reaches the newest archived date; detail reads fall back to the archive. Writes to an
+ * archived message restore it to messages first (see MessageArchiver).
+ *
+ * Folder list pages are served from MessagePageCache; the FOLDER changes recorded by
+ * the mutations here make a folder's cached pages stale as soon as they commit.
  */
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class MessageService {
     
     private final MessageRepository messageRepository;
+    private final ArchivedMessageRepository archiveRepository;
+    private final FolderRepository folderRepository;
+    private final UserRepository userRepository;
     private final EntityMapper mapper;
+    private final ChangeLogService changeLog;
+    private final MessageBodyService messageBodyService;
+    private final ThreadIndexer threadIndexer;
+    private final SyncService syncService;
+    private final MessageArchiver messageArchiver;
+    private final MessagePageCache pageCache;
+    
+    private static final Comparator<MessageView> NEWEST_FIRST = Comparator
+        .comparing(MessageView::getMessageDate)
+        .thenComparing(MessageView::getId)
+        .reversed();
     
     /**
      * Get paginated messages for a folder.
@@ -39,7 +77,6 @@ public class MessageService {
      * @param sortDirection Sort direction (ASC/DESC)
      * @return Paginated messages response
      */
-    @Transactional(readOnly = true)
     public MessagesResponseDTO getMessages(
             Long folderId,
             int page, 
@@ -47,9 +84,6 @@ public class MessageService {
             String sortField,
             String sortDirection) {
         
-        log.info("Getting messages: folderId={}, page={}, size={}, sort={} {}", 
-            folderId, page, size, sortField, sortDirection);
-        
         // Create sort
         Sort.Direction direction = "ASC".equalsIgnoreCase(sortDirection) 
             ? Sort.Direction.ASC 
@@ -59,31 +93,101 @@ public class MessageService {
         // Create pageable
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        // Get messages
+        return pageCache.get(new MessagePageCache.Key(folderId, page, size, sortField, direction),
+            () -> loadMessages(folderId, pageable, direction, sortField));
+    }
+    
+    private MessagesResponseDTO loadMessages(Long folderId, Pageable pageable,
+                                             Sort.Direction direction, String sortField) {
+        // Get messages; the archive is merged in by date where the hot rows reach it
         Page<Message> messagePage;
+        long archived;
+        ArchiveList archiveList;
         if (folderId != null) {
             messagePage = messageRepository.findByFolderIdOrderByMessageDateDesc(folderId, pageable);
+            Optional<Folder> folder = folderRepository.findById(folderId);
+            folder.ifPresent(pageCache::folderLoaded);
+            archived = folder.map(Folder::getArchivedMessageCount).orElse(0);
+            archiveList = new ArchiveList(
+                date -> messageRepository.countByFolderNewerThan(folderId, date),
+                (date, limit) -> messageRepository.findByFolderNotNewerThan(folderId, date, limit),
+                (offset, limit) -> archiveRepository.findByFolder(folderId, offset, limit));
         } else {
             messagePage = messageRepository.findAll(pageable);
+            // Other orders would interleave the two tables; they list hot messages only
+            boolean newestFirst = direction == Sort.Direction.DESC
+                && (sortField == null || "messageDate".equals(sortField));
+            archived = newestFirst ? folderRepository.sumArchivedMessageCount() : 0;
+            archiveList = new ArchiveList(messageRepository::countNewerThan, messageRepository::findNotNewerThan,
+                archiveRepository::findNewest);
         }
         
-        // Convert to DTOs
-        MessagesResponseDTO response = MessagesResponseDTO.builder()
-            .data(messagePage.getContent().stream()
-                .map(mapper::toMessageListItemDTO)
-                .collect(Collectors.toList()))
-            .page(page)
-            .size(size)
-            .totalElements(messagePage.getTotalElements())
-            .totalPages(messagePage.getTotalPages())
-            .build();
+        long total = messagePage.getTotalElements() + archived;
+        List<MessageView> content = withArchive(messagePage.getContent(), pageable,
+            archived > 0 ? archiveList : null);
+        return toResponse(content, total, pageable.getPageNumber(), pageable.getPageSize());
+    }
+    
+    /**
+     * Get paginated messages a user received, newest first.
+     * 
+     * @param userId Recipient user ID
+     * @param page Page number (0-indexed)
+     * @param size Page size
+     * @return Paginated messages response
+     */
+    @Transactional(readOnly = true)
+    public MessagesResponseDTO getMessagesReceivedBy(Long userId, int page, int size) {
+        User user = findUser(userId);
+        Pageable pageable = PageRequest.of(page, size);
+        long total = messageRepository.countReceivedBy(user.getId());
+        List<MessageView> content = withArchive(messageRepository.findReceivedBy(user.getId(), pageable), pageable,
+            new ArchiveList(
+                date -> messageRepository.countReceivedByNewerThan(user.getId(), date),
+                (date, limit) -> messageRepository.findReceivedByNotNewerThan(user.getId(), date, limit),
+                (offset, limit) -> archiveRepository.findReceivedBy(user.getId(), offset, limit)));
+        return toResponse(content, total, page, size);
+    }
+    
+    /**
+     * Get paginated messages exchanged between two users (either one the author and the
+     * other a recipient), newest first, archived ones included.
+     * 
+     * @param userId User ID
+     * @param otherUserId Other user ID; the same user gives the messages they sent to themselves
+     * @param page Page number (0-indexed)
+     * @param size Page size
+     * @return Paginated messages response
+     */
+    @Transactional(readOnly = true)
+    public MessagesResponseDTO getMessagesBetween(Long userId, Long otherUserId, int page, int size) {
+        Long id = findUser(userId).getId();
+        Long otherId = findUser(otherUserId).getId();
+        Pageable pageable = PageRequest.of(page, size);
         
-        log.info("Returning {} messages (page {} of {})", 
-            response.getData().size(), 
-            page, 
-            response.getTotalPages());
+        Page<Message> messagePage;
+        long archived;
+        ArchiveList archiveList;
+        if (id.equals(otherId)) {
+            messagePage = messageRepository.findSentToSelf(id, pageable);
+            archived = archiveRepository.countSentToSelf(id);
+            archiveList = new ArchiveList(
+                date -> messageRepository.countSentToSelfNewerThan(id, date),
+                (date, limit) -> messageRepository.findSentToSelfNotNewerThan(id, date, limit),
+                (offset, limit) -> archiveRepository.findSentToSelf(id, offset, limit));
+        } else {
+            messagePage = messageRepository.findBetween(id, otherId, pageable);
+            archived = archiveRepository.countBetween(id, otherId);
+            archiveList = new ArchiveList(
+                date -> messageRepository.countBetweenNewerThan(id, otherId, date),
+                (date, limit) -> messageRepository.findBetweenNotNewerThan(id, otherId, date, limit),
+                (offset, limit) -> archiveRepository.findBetween(id, otherId, offset, limit));
+        }
         
-        return response;
+        long total = messagePage.getTotalElements() + archived;
+        List<MessageView> content = withArchive(messagePage.getContent(), pageable,
+            archived > 0 ? archiveList : null);
+        return toResponse(content, total, page, size);
     }
     
     /**
@@ -94,12 +198,12 @@ public class MessageService {
      */
     @Transactional(readOnly = true)
     public MessageDetailDTO getMessage(Long messageId) {
-        log.info("Getting message {}", messageId);
-        
-        Message message = messageRepository.findByMessageId(messageId)
+        MessageView message = messageRepository.findByMessageId(messageId)
+            .<MessageView>map(found -> found)
+            .or(() -> archiveRepository.findByMessageId(messageId))
             .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
         
-        return mapper.toMessageDetailDTO(message);
+        return mapper.toMessageDetailDTO(message, messageBodyService.getBody(message));
     }
     
     /**
@@ -109,13 +213,13 @@ public class MessageService {
      */
     @Transactional
     public void markAsRead(Long messageId) {
-        log.info("Marking message {} as read", messageId);
-        
-        Message message = messageRepository.findByMessageId(messageId)
-            .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
+        Message message = findForWrite(messageId);
         
+        boolean wasRead = Boolean.TRUE.equals(message.getIsRead());
         message.setIsRead(true);
+        threadIndexer.onReadChanged(message, wasRead);
         messageRepository.save(message);
+        recordChange(message, ChangeLogService.CHANGE_UPDATED);
     }
     
     /**
@@ -125,13 +229,13 @@ public class MessageService {
      */
     @Transactional
     public void markAsUnread(Long messageId) {
-        log.info("Marking message {} as unread", messageId);
-        
-        Message message = messageRepository.findByMessageId(messageId)
-            .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
+        Message message = findForWrite(messageId);
         
+        boolean wasRead = Boolean.TRUE.equals(message.getIsRead());
         message.setIsRead(false);
+        threadIndexer.onReadChanged(message, wasRead);
         messageRepository.save(message);
+        recordChange(message, ChangeLogService.CHANGE_UPDATED);
     }
     
     /**
@@ -141,11 +245,135 @@ public class MessageService {
      */
     @Transactional
     public void deleteMessage(Long messageId) {
-        log.info("Deleting message {}", messageId);
+        Message message = findForWrite(messageId);
         
-        Message message = messageRepository.findByMessageId(messageId)
+        messageBodyService.deleteBody(message);
+        messageRepository.delete(message);
+        // After the message: deletes flush in call order, and the thread may go with it
+        threadIndexer.onDeleted(message);
+        syncService.recordDelete(SyncService.ENTITY_MESSAGE, messageId);
+        recordChange(message, ChangeLogService.CHANGE_DELETED);
+    }
+    
+    /**
+     * Load a message to change it, moving it back from the archive if it was archived.
+     */
+    private Message findForWrite(Long messageId) {
+        return messageRepository.findByMessageId(messageId)
+            .or(() -> messageArchiver.restore(messageId)
+                ? messageRepository.findByMessageId(messageId)
+                : Optional.empty())
             .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
+    }
+    
+    private User findUser(Long userId) {
+        return userRepository.findByUserId(userId)
+            .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+    }
+    
+    /**
+     * Merge a page of hot messages with the archive, newest first.
+     * 
+     * Hot messages dated after the newest archived one lead the list, so a full page of them
+     * is returned as it is, after one indexed MAX query. The rest of the list is the older
+     * hot messages (restored by a write, uploaded with an old date, or not archived yet)
+     * merged with the archive by date and id. How many of those hot messages fall before
+     * the page is found by a binary search over single archive rows; then the page is
+     * merged from both sides.
+     * 
+     * @param hot Page of messages from the messages table
+     * @param list Queries of the list on both tables; null if none of it is archived
+     */
+    private List<MessageView> withArchive(List<Message> hot, Pageable pageable, ArchiveList list) {
+        int size = pageable.getPageSize();
+        LocalDateTime newestArchived = list != null ? archiveRepository.findNewestDate() : null;
+        if (newestArchived == null
+                || (hot.size() >= size && hot.get(size - 1).getMessageDate().isAfter(newestArchived))) {
+            return new ArrayList<>(hot);
+        }
         
-        messageRepository.delete(message);
+        long newer = list.countNewer().applyAsLong(newestArchived);
+        int leading = (int) Math.max(0, Math.min(hot.size(), newer - pageable.getOffset()));
+        List<MessageView> content = new ArrayList<>(hot.subList(0, leading));
+        int remaining = size - leading;
+        if (remaining == 0) {
+            return content;
+        }
+        
+        long skip = Math.max(0, pageable.getOffset() - newer);
+        List<Message> older = list.findOlder().apply(newestArchived,
+            PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, skip + remaining)));
+        int olderSkipped = olderBefore(older, skip, list.archive());
+        List<ArchivedMessage> archived = list.archive().find(skip - olderSkipped, remaining);
+        
+        int i = olderSkipped;
+        int j = 0;
+        while (content.size() < size && (i < older.size() || j < archived.size())) {
+            if (j == archived.size()
+                    || (i < older.size() && NEWEST_FIRST.compare(older.get(i), archived.get(j)) < 0)) {
+                content.add(older.get(i++));
+            } else {
+                content.add(archived.get(j++));
+            }
+        }
+        return content;
+    }
+    
+    /**
+     * Number of the older hot messages among the first skip messages of the merged rest:
+     * the largest k for which hot message k - 1 comes before archived message skip - k.
+     */
+    private static int olderBefore(List<Message> older, long skip, ArchivePage archive) {
+        int low = 0;
+        int high = (int) Math.min(skip, older.size());
+        while (low < high) {
+            int k = (low + high + 1) >>> 1;
+            List<ArchivedMessage> next = archive.find(skip - k, 1);
+            if (next.isEmpty() || NEWEST_FIRST.compare(older.get(k - 1), next.get(0)) < 0) {
+                low = k;
+            } else {
+                high = k - 1;
+            }
+        }
+        return low;
+    }
+    
+    @FunctionalInterface
+    private interface ArchivePage {
+        List<ArchivedMessage> find(long offset, int limit);
+    }
+    
+    /**
+     * One list's queries for {@link #withArchive}: hot messages counted after, and listed up
+     * to, a date, and archived messages at an offset.
+     */
+    private record ArchiveList(ToLongFunction<LocalDateTime> countNewer,
+                               BiFunction<LocalDateTime, Pageable, List<Message>> findOlder,
+                               ArchivePage archive) {
+    }
+    
+    /**
+     * Convert a page of messages. Authors, recipients and attachments are batch-fetched,
+     * so a page costs a fixed number of queries regardless of its size.
+     */
+    private MessagesResponseDTO toResponse(List<MessageView> messages, long total, int page, int size) {
+        return MessagesResponseDTO.builder()
+            .data(messages.stream()
+                .map(mapper::toMessageListItemDTO)
+                .collect(Collectors.toList()))
+            .page(page)
+            .size(size)
+            .totalElements(total)
+            .totalPages(size > 0 ? (int) ((total + size - 1) / size) : 1)
+            .build();
+    }
+    
+    /**
+     * Log a message change together with its folder, whose counts and pages it affects.
+     */
+    private void recordChange(Message message, String changeType) {
+        changeLog.record(ChangeLogService.ENTITY_MESSAGE, message.getMessageId(), changeType);
+        changeLog.record(ChangeLogService.ENTITY_FOLDER, message.getFolder().getFolderId(),
+            ChangeLogService.CHANGE_UPDATED);
     }
 }
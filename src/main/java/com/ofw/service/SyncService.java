@@ -0,0 +1,157 @@
+package com.ofw.service;
+
+import com.ofw.model.dto.DeletedEntityDTO;
+import com.ofw.model.dto.SyncResponseDTO;
+import com.ofw.model.entity.Folder;
+import com.ofw.model.entity.Message;
+import com.ofw.model.entity.SyncTombstone;
+import com.ofw.repository.FolderRepository;
+import com.ofw.repository.MessageRepository;
+import com.ofw.repository.SyncTombstoneRepository;
+import com.ofw.service.mapper.EntityMapper;
+import com.ofw.service.sync.SyncToken;
+import com.ofw.service.sync.SyncTokenException;
+import com.ofw.service.shard.Shards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service for delta sync.
+ *
+ * Changes are read by (updatedAt, id) cursor from messages and folders, and by ID from
+ * sync_tombstones for hard deletes. Each is one range scan on its index, so a poll with
+ * nothing new costs three empty index lookups.
+ *
+ * Rows become visible at commit time, not at the time updatedAt was set, so rows changed
+ * within the last commit-lag are held back until the next poll; otherwise a slow
+ * transaction could commit a timestamp behind a cursor a client already has.
+ */
+@Service
+@Slf4j
+public class SyncService {
+
+    public static final String ENTITY_MESSAGE = "MESSAGE";
+    public static final String ENTITY_FOLDER = "FOLDER";
+
+    private final MessageRepository messageRepository;
+    private final FolderRepository folderRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final EntityMapper mapper;
+    private final Shards shards;
+    private final Duration commitLag;
+    private final Duration tombstoneRetention;
+    private final int maxLimit;
+
+    public SyncService(MessageRepository messageRepository,
+                       FolderRepository folderRepository,
+                       SyncTombstoneRepository tombstoneRepository,
+                       EntityMapper mapper,
+                       Shards shards,
+                       @Value("${ofw.sync.commit-lag-ms:5000}") long commitLagMillis,
+                       @Value("${ofw.sync.tombstone-retention-days:30}") long tombstoneRetentionDays,
+                       @Value("${ofw.sync.max-limit:1000}") int maxLimit) {
+        this.messageRepository = messageRepository;
+        this.folderRepository = folderRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.mapper = mapper;
+        this.shards = shards;
+        this.commitLag = Duration.ofMillis(commitLagMillis);
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Get changes since a token.
+     *
+     * @param token Token from the previous response, or null for a full sync
+     * @param limit Maximum rows per entity type in this page
+     * @return Changes and the token to continue from
+     * @throws SyncTokenException if the token is malformed or expired
+     */
+    @Transactional(readOnly = true)
+    public SyncResponseDTO getChanges(String token, int limit) {
+        Instant now = Instant.now();
+        SyncToken since = token != null ? SyncToken.decode(token) : SyncToken.initial(now);
+        // Deletes up to issuedAt - commitLag were delivered; later ones must still be retained
+        if (since.issuedAt().minus(commitLag).isBefore(now.minus(tombstoneRetention))) {
+            throw new SyncTokenException("Sync token expired, full resync required", true);
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, maxLimit));
+        PageRequest page = PageRequest.of(0, pageSize);
+        LocalDateTime horizon = LocalDateTime.now().minus(commitLag);
+
+        List<Message> messages = messageRepository.findChangedSince(
+            since.messageUpdatedAt(), since.messageId(), horizon, page);
+        List<Folder> folders = folderRepository.findChangedSince(
+            since.folderUpdatedAt(), since.folderId(), horizon, page);
+        List<SyncTombstone> tombstones = tombstoneRepository.findChangedSince(
+            since.tombstoneId(), horizon, page);
+
+        Message lastMessage = messages.isEmpty() ? null : messages.get(messages.size() - 1);
+        Folder lastFolder = folders.isEmpty() ? null : folders.get(folders.size() - 1);
+        SyncToken next = new SyncToken(
+            lastMessage != null ? lastMessage.getUpdatedAt() : since.messageUpdatedAt(),
+            lastMessage != null ? lastMessage.getId() : since.messageId(),
+            lastFolder != null ? lastFolder.getUpdatedAt() : since.folderUpdatedAt(),
+            lastFolder != null ? lastFolder.getId() : since.folderId(),
+            tombstones.isEmpty() ? since.tombstoneId() : tombstones.get(tombstones.size() - 1).getId(),
+            now);
+
+        log.debug("Sync since {}: {} messages, {} folders, {} deletes",
+            token, messages.size(), folders.size(), tombstones.size());
+
+        return SyncResponseDTO.builder()
+            .messages(messages.stream().map(mapper::toMessageListItemDTO).collect(Collectors.toList()))
+            // Counts are left out; clients derive them from the messages they hold
+            .folders(folders.stream().map(folder -> mapper.toFolderDTO(folder, null, null)).collect(Collectors.toList()))
+            .deleted(tombstones.stream()
+                .map(t -> DeletedEntityDTO.builder().type(t.getEntityType()).id(t.getEntityId()).build())
+                .collect(Collectors.toList()))
+            .token(next.encode())
+            .hasMore(messages.size() == pageSize || folders.size() == pageSize || tombstones.size() == pageSize)
+            .build();
+    }
+
+    /**
+     * Record a hard delete for sync clients. Must run in the deleting transaction.
+     *
+     * @param entityType ENTITY_MESSAGE or ENTITY_FOLDER
+     * @param entityId External ID
+     */
+    public void recordDelete(String entityType, Long entityId) {
+        tombstoneRepository.save(SyncTombstone.builder()
+            .entityType(entityType)
+            .entityId(entityId)
+            .deletedAt(LocalDateTime.now())
+            .build());
+    }
+
+    /**
+     * Drop tombstones older than the retention window; tokens that old are rejected.
+     */
+    @Scheduled(fixedDelayString = "${ofw.sync.purge-interval-ms:3600000}",
+               initialDelayString = "${ofw.sync.purge-interval-ms:3600000}")
+    public void purgeTombstones() {
+        shards.forEach(() -> {
+            try {
+                int deleted = tombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+                if (deleted > 0) {
+                    log.info("Purged {} sync tombstones", deleted);
+                }
+            } catch (Exception e) {
+                log.warn("Sync tombstone purge failed: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package com.ofw.service;
+
+import com.ofw.model.dto.MessageListItemDTO;
+import com.ofw.model.dto.ThreadDetailDTO;
+import com.ofw.model.dto.ThreadSummaryDTO;
+import com.ofw.model.dto.ThreadsResponseDTO;
+import com.ofw.model.dto.UserDTO;
+import com.ofw.model.entity.MessageThread;
+import com.ofw.model.entity.MessageView;
+import com.ofw.model.entity.User;
+import com.ofw.repository.ArchivedMessageRepository;
+import com.ofw.repository.MessageRepository;
+import com.ofw.repository.MessageThreadRepository;
+import com.ofw.repository.UserRepository;
+import com.ofw.service.mapper.EntityMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for conversation threads.
+ * Reads the thread index maintained by ThreadIndexer; never groups messages at request time.
+ */
+@Service
+@RequiredArgsConstructor
+public class ThreadService {
+    
+    private final MessageThreadRepository threadRepository;
+    private final MessageRepository messageRepository;
+    private final ArchivedMessageRepository archiveRepository;
+    private final UserRepository userRepository;
+    private final EntityMapper mapper;
+    
+    /**
+     * Get thread summaries, most recently active first.
+     * One query for the page (plus its count) and one for the participants.
+     * 
+     * @param folderId Only threads with a message in this folder (optional)
+     * @param page Page number (0-indexed)
+     * @param size Page size
+     * @return Paginated thread summaries
+     */
+    @Transactional(readOnly = true)
+    public ThreadsResponseDTO getThreads(Long folderId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Page<MessageThread> threadPage = folderId != null
+            ? threadRepository.findByFolderId(folderId, pageable)
+            : threadRepository.findAllByOrderByLastMessageDateDescIdDesc(pageable);
+        
+        Map<Long, UserDTO> users = loadParticipants(threadPage.getContent());
+        
+        return ThreadsResponseDTO.builder()
+            .data(threadPage.getContent().stream()
+                .map(thread -> toSummary(thread, users))
+                .collect(Collectors.toList()))
+            .page(page)
+            .size(size)
+            .totalElements(threadPage.getTotalElements())
+            .totalPages(threadPage.getTotalPages())
+            .build();
+    }
+    
+    /**
+     * Get a thread and its messages in date order.
+     * 
+     * @param threadId Thread ID
+     * @return Thread summary and members
+     */
+    @Transactional(readOnly = true)
+    public ThreadDetailDTO getThread(Long threadId) {
+        MessageThread thread = threadRepository.findById(threadId)
+            .orElseThrow(() -> new IllegalArgumentException("Thread not found: " + threadId));
+        
+        List<MessageView> members = new ArrayList<>(messageRepository.findThreadMembers(threadId));
+        if (members.size() < thread.getMessageCount()) {
+            // The rest are archived; they are older, but restored messages may interleave
+            members.addAll(archiveRepository.findThreadMembers(threadId));
+            members.sort(Comparator.comparing(MessageView::getMessageDate).thenComparing(MessageView::getId));
+        }
+        
+        List<MessageListItemDTO> messages = members.stream()
+            .map(mapper::toMessageListItemDTO)
+            .collect(Collectors.toList());
+        
+        return ThreadDetailDTO.builder()
+            .thread(toSummary(thread, loadParticipants(List.of(thread))))
+            .messages(messages)
+            .build();
+    }
+    
+    private ThreadSummaryDTO toSummary(MessageThread thread, Map<Long, UserDTO> users) {
+        List<UserDTO> participants = parseIds(thread.getParticipantIds()).stream()
+            .map(users::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        return mapper.toThreadSummaryDTO(thread, participants);
+    }
+    
+    private Map<Long, UserDTO> loadParticipants(Collection<MessageThread> threads) {
+        Set<Long> ids = new HashSet<>();
+        threads.forEach(thread -> ids.addAll(parseIds(thread.getParticipantIds())));
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findByUserIdIn(ids).stream()
+            .collect(Collectors.toMap(User::getUserId, mapper::toUserDTO, (a, b) -> a));
+    }
+    
+    private static List<Long> parseIds(String participantIds) {
+        if (participantIds == null || participantIds.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(participantIds.split(","))
+            .map(Long::valueOf)
+            .collect(Collectors.toList());
+    }
+}
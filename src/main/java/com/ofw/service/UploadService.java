@@ -1,18 +1,22 @@
 package com.ofw.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ofw.model.dto.UploadResultDTO;
 import com.ofw.model.entity.UploadFile;
 import com.ofw.model.entity.UploadSession;
 import com.ofw.model.entity.User;
+import com.ofw.repository.UploadFileRepository;
 import com.ofw.repository.UploadSessionRepository;
 import com.ofw.repository.UserRepository;
+import com.ofw.service.metrics.IngestionMetrics;
 import com.ofw.service.processor.FileProcessor;
-import lombok.RequiredArgsConstructor;
+import com.ofw.service.upload.SpooledUpload;
+import com.ofw.service.upload.UploadInProgressException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
@@ -20,107 +24,186 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
  * Service for handling debug data uploads.
  * Uses Facade pattern to simplify complex upload operations.
+ * 
+ * An upload is not one transaction. The session and each file record are committed before
+ * the file is read, processors commit their records in batches (see FileProcessor), and
+ * the results are written at the end. A failing record is dead-lettered against a
+ * committed file record without rolling back anything else.
+ * 
+ * A running session holds a lease on its Idempotency-Key, renewed after every file. If the
+ * upload dies (pod killed, connection lost) the lease runs out after ofw.upload.lease-ms;
+ * a retry with the same key then fails the old session and starts a new one.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UploadService {
     
     private final UploadSessionRepository sessionRepository;
+    private final UploadFileRepository uploadFileRepository;
     private final UserRepository userRepository;
     private final List<FileProcessor> fileProcessors;
-    private final ObjectMapper objectMapper;
+    private final IngestionMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final Path spoolDir;
+    private final Duration lease;
+    
+    public UploadService(UploadSessionRepository sessionRepository,
+                         UploadFileRepository uploadFileRepository,
+                         UserRepository userRepository,
+                         List<FileProcessor> fileProcessors,
+                         IngestionMetrics metrics,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${ofw.upload.temp-dir:${java.io.tmpdir}/ofw-uploads}") Path spoolDir,
+                         @Value("${ofw.upload.lease-ms:900000}") long leaseMillis) {
+        this.sessionRepository = sessionRepository;
+        this.uploadFileRepository = uploadFileRepository;
+        this.userRepository = userRepository;
+        this.fileProcessors = fileProcessors;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.spoolDir = spoolDir;
+        this.lease = Duration.ofMillis(leaseMillis);
+    }
     
     /**
      * Upload and process debug data files.
      * Uses Template Method pattern via FileProcessor strategies.
+     * 
+     * A repeated idempotency key returns the original session's result without reading
+     * the files. Otherwise each file is hashed first, and a file whose content already
+     * succeeded in an earlier upload is marked SKIPPED without being parsed.
+     * 
+     * Records that fail are kept as dead letters of their file (see DeadLetterService)
+     * and counted in the result; the rest of the file is still ingested.
+     * 
+     * @param idempotencyKey Optional client-supplied key identifying this logical upload
+     * @throws UploadInProgressException if another upload with the same key is in progress
+     *         and its lease has not run out
      */
-    @Transactional
     public UploadResultDTO uploadDebugData(
             MultipartFile[] files, 
             Long userId, 
-            String notes) throws IOException {
+            String notes,
+            String idempotencyKey) throws IOException {
+        
+        if (idempotencyKey != null) {
+            UploadResultDTO previous = transactionTemplate.execute(status ->
+                sessionRepository.findByIdempotencyKey(idempotencyKey)
+                    .map(this::toReplayResult)
+                    .orElse(null));
+            if (previous != null) {
+                return previous;
+            }
+        }
         
         log.info("Starting upload session for {} files", files.length);
         
         // Create upload session
-        UploadSession session = createSession(userId, files.length, notes);
+        UploadSession session = createSession(userId, files.length, notes, idempotencyKey);
         
         List<String> errorMessages = new ArrayList<>();
         int totalRecords = 0;
         int processedFiles = 0;
         int errors = 0;
+        int deadLetters = 0;
         
         // Process each file
-        for (MultipartFile file : files) {
-            String fileName = file.getOriginalFilename();
-            log.info("Processing file: {}", fileName);
-            
-            UploadFile uploadFile = UploadFile.builder()
-                .session(session)
-                .fileName(fileName)
-                .fileType(determineFileType(fileName))
-                .build();
-            
-            session.getFiles().add(uploadFile);
-            
-            try {
-                // Find appropriate processor
-                FileProcessor processor = findProcessor(fileName);
+        boolean finished = false;
+        try {
+            for (MultipartFile file : files) {
+                String fileName = file.getOriginalFilename();
+                log.info("Processing file: {}", fileName);
+                
+                UploadFile uploadFile = UploadFile.builder()
+                    .session(session)
+                    .fileName(fileName)
+                    .fileType(determineFileType(fileName))
+                    .build();
                 
-                if (processor == null) {
-                    String error = "No processor found for file: " + fileName;
-                    log.warn(error);
+                session.getFiles().add(uploadFile);
+                
+                try {
+                    // Committed up front: dead letters reference it from transactions of their own
+                    transactionTemplate.executeWithoutResult(status -> uploadFileRepository.save(uploadFile));
+                    
+                    // Find appropriate processor
+                    FileProcessor processor = findProcessor(fileName);
+                    
+                    if (processor == null) {
+                        String error = "No processor found for file: " + fileName;
+                        log.warn(error);
+                        uploadFile.markFailed(error);
+                        errorMessages.add(error);
+                        errors++;
+                        continue;
+                    }
+                    
+                    // Spool to disk; the spool file is deleted when this block exits
+                    try (SpooledUpload upload = SpooledUpload.spool(file, spoolDir)) {
+                        
+                        // Skip content that an earlier upload already ingested
+                        String contentHash = upload.sha256();
+                        uploadFile.setContentHash(contentHash);
+                        if (uploadFileRepository.existsByContentHashAndStatus(contentHash, "SUCCESS")) {
+                            log.info("Skipping {} - identical content already processed", fileName);
+                            uploadFile.markSkipped();
+                            processedFiles++;
+                            session.incrementProcessed();
+                            continue;
+                        }
+                        
+                        // Process file (processors stream and parse it themselves)
+                        long startNanos = System.nanoTime();
+                        int recordsCreated = processor.process(fileName, upload, uploadFile);
+                        metrics.recordFile(processor.getFileType(), recordsCreated, 
+                            System.nanoTime() - startNanos);
+                        
+                        uploadFile.markSuccess(recordsCreated);
+                        totalRecords += recordsCreated;
+                        deadLetters += uploadFile.getDeadLetterCount();
+                        processedFiles++;
+                        
+                        log.info("Successfully processed {} - created {} records", 
+                            fileName, recordsCreated);
+                    }
+                    
+                } catch (Exception e) {
+                    String error = "Error processing " + fileName + ": " + e.getMessage();
+                    log.error(error, e);
                     uploadFile.markFailed(error);
                     errorMessages.add(error);
                     errors++;
-                    continue;
+                    session.incrementErrors();
                 }
                 
-                // Parse JSON
-                JsonNode jsonData = objectMapper.readTree(file.getInputStream());
-                
-                // Process file
-                int recordsCreated = processor.process(fileName, jsonData, session);
-                
-                uploadFile.markSuccess(recordsCreated);
-                totalRecords += recordsCreated;
-                processedFiles++;
-                
-                log.info("Successfully processed {} - created {} records", 
-                    fileName, recordsCreated);
-                
-            } catch (Exception e) {
-                String error = "Error processing " + fileName + ": " + e.getMessage();
-                log.error(error, e);
-                uploadFile.markFailed(error);
-                errorMessages.add(error);
-                errors++;
-                session.incrementErrors();
+                session.incrementProcessed();
+                transactionTemplate.executeWithoutResult(status ->
+                    sessionRepository.heartbeat(session.getId(), LocalDateTime.now()));
             }
             
-            session.incrementProcessed();
-        }
-        
-        // Complete session
-        if (errors == 0) {
-            session.complete();
-        } else if (processedFiles == 0) {
-            session.fail("All files failed to process");
-        } else {
-            session.complete(); // Partial success
+            finished = true;
+        } finally {
+            // Always leave a terminal status, so the key can be replayed or retried
+            if (!finished) {
+                session.fail("Upload aborted before all files were processed");
+            } else if (errors > 0 && processedFiles == 0) {
+                session.fail("All files failed to process");
+            } else {
+                session.complete(); // Partial success included
+            }
+            transactionTemplate.executeWithoutResult(status -> sessionRepository.save(session));
         }
         
-        sessionRepository.save(session);
-        
         return UploadResultDTO.builder()
             .sessionId(session.getSessionId())
             .status(session.getStatus())
@@ -129,22 +212,81 @@ public class UploadService {
             .filesProcessed(processedFiles)
             .recordsCreated(totalRecords)
             .errors(errors)
+            .deadLetters(deadLetters)
             .errorMessages(errorMessages)
             .build();
     }
     
-    private UploadSession createSession(Long userId, int totalFiles, String notes) {
+    private UploadSession createSession(Long userId, int totalFiles, String notes, String idempotencyKey) {
         User user = userId != null ? 
             userRepository.findByUserId(userId).orElse(null) : null;
         
         UploadSession session = UploadSession.builder()
             .sessionId(UUID.randomUUID().toString())
+            .idempotencyKey(idempotencyKey)
             .uploadedBy(user)
             .totalFiles(totalFiles)
             .notes(notes)
+            .heartbeatAt(LocalDateTime.now())
             .build();
         
-        return sessionRepository.save(session);
+        try {
+            return transactionTemplate.execute(status -> sessionRepository.save(session));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent upload with the same key created its session first
+            throw new UploadInProgressException(
+                "Upload already in progress for Idempotency-Key: " + idempotencyKey, e);
+        }
+    }
+    
+    /**
+     * Rebuild the result of a previous upload from its stored file records, or null if that
+     * upload died and its key was released for this one.
+     * 
+     * @throws UploadInProgressException if that upload has not finished yet and holds its lease
+     */
+    private UploadResultDTO toReplayResult(UploadSession session) {
+        if ("IN_PROGRESS".equals(session.getStatus())) {
+            LocalDateTime now = LocalDateTime.now();
+            String reason = "Abandoned: no heartbeat for " + lease.toSeconds() + "s, Idempotency-Key "
+                + session.getIdempotencyKey() + " reused by a new upload";
+            if (sessionRepository.abandon(session.getId(), now.minus(lease), reason, now) == 0) {
+                throw new UploadInProgressException(
+                    "Upload already in progress for Idempotency-Key: " + session.getIdempotencyKey(), null);
+            }
+            log.warn("Session {} stopped renewing its lease, restarting its upload", session.getSessionId());
+            return null;
+        }
+        log.info("Idempotency-Key {} already used by session {}, returning stored result",
+            session.getIdempotencyKey(), session.getSessionId());
+        
+        List<String> errorMessages = new ArrayList<>();
+        int processedFiles = 0;
+        int totalRecords = 0;
+        int deadLetters = 0;
+        
+        for (UploadFile uploadFile : session.getFiles()) {
+            if ("FAILED".equals(uploadFile.getStatus())) {
+                errorMessages.add(uploadFile.getErrorMessage());
+            } else {
+                processedFiles++;
+                totalRecords += uploadFile.getRecordsCreated();
+                deadLetters += Objects.requireNonNullElse(uploadFile.getDeadLetterCount(), 0);
+            }
+        }
+        
+        return UploadResultDTO.builder()
+            .sessionId(session.getSessionId())
+            .status(session.getStatus())
+            .message(String.format("Processed %d files, created %d records", 
+                processedFiles, totalRecords))
+            .filesProcessed(processedFiles)
+            .recordsCreated(totalRecords)
+            .errors(errorMessages.size())
+            .deadLetters(deadLetters)
+            .errorMessages(errorMessages)
+            .replayed(true)
+            .build();
     }
     
     private FileProcessor findProcessor(String fileName) {
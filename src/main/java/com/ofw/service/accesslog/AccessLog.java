@@ -0,0 +1,184 @@
+package com.ofw.service.accesslog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Structured access log: one JSON line per sampled request on the ofw.access logger.
+ *
+ * Request threads only build an Entry and offer it to a bounded queue; formatting and
+ * writing happen on the ofw-access-log thread. When the queue is full the entry is dropped
+ * and counted, so a slow log sink never blocks a request. The logger's own appenders run on
+ * the writer thread only.
+ *
+ * High-volume routes can be sampled: ofw.access-log.sample-rates lists rates by
+ * "METHOD route" (e.g. "GET /pub/v3/messages=0.05"), other routes use
+ * ofw.access-log.sample-rate. Errors (status 400 and up) and requests slower than
+ * ofw.access-log.slow-ms are always logged. Each line carries the rate it was sampled at.
+ *
+ * Meters:
+ * - ofw.access_log.events (counter, tag: outcome) - logged / sampled_out / dropped
+ * - ofw.access_log.queue  (gauge) - entries waiting for the writer
+ */
+@Component
+@Slf4j
+public class AccessLog {
+
+    /** Logger the access lines are written to; route it to its own appender to separate them. */
+    public static final String LOGGER = "ofw.access";
+
+    private static final Logger ACCESS = LoggerFactory.getLogger(LOGGER);
+    private static final int WRITE_BATCH = 256;
+
+    /**
+     * One request; route is the matched URI pattern, rows the entities Hibernate loaded.
+     */
+    public record Entry(String timestamp, String method, String route, int status, double latencyMs,
+                        long statements, long rows, double jdbcMs, double sampleRate) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final double defaultRate;
+    private final Map<String, Double> routeRates;
+    private final long slowMs;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+    private final Counter loggedCounter;
+    private final Counter sampledOutCounter;
+    private final Counter droppedCounter;
+
+    public AccessLog(ObjectMapper objectMapper,
+                     MeterRegistry registry,
+                     @Value("${ofw.access-log.enabled:true}") boolean enabled,
+                     @Value("${ofw.access-log.queue-size:10000}") int queueSize,
+                     @Value("${ofw.access-log.sample-rate:1.0}") double defaultRate,
+                     @Value("${ofw.access-log.sample-rates:GET /pub/v3/messages=0.1,GET /pub/v1/messageFolders=0.1,GET /pub/v3/sync=0.1}") String routeRates,
+                     @Value("${ofw.access-log.slow-ms:1000}") long slowMs) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.defaultRate = defaultRate;
+        this.routeRates = parseRates(routeRates);
+        this.slowMs = slowMs;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.loggedCounter = counter(registry, "logged");
+        this.sampledOutCounter = counter(registry, "sampled_out");
+        this.droppedCounter = counter(registry, "dropped");
+        Gauge.builder("ofw.access_log.queue", queue, BlockingQueue::size)
+            .description("Access log entries waiting to be written")
+            .register(registry);
+
+        this.writer = new Thread(this::drain, "ofw-access-log");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("ofw.access_log.events")
+            .description("Access log entries by outcome")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * "GET /pub/v3/messages=0.05, GET /pub/v1/messageFolders=0.1" to rates by "METHOD route".
+     */
+    static Map<String, Double> parseRates(String spec) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String rule : spec.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            int separator = rule.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Access log sample rate without '=': " + rule.trim());
+            }
+            rates.put(rule.substring(0, separator).trim().replaceAll("\\s+", " "),
+                Double.parseDouble(rule.substring(separator + 1).trim()));
+        }
+        return Map.copyOf(rates);
+    }
+
+    /**
+     * Sample and queue a finished request. Never blocks.
+     */
+    public void record(String method, String route, int status, long latencyNanos,
+                       long statements, long rows, long jdbcNanos) {
+        if (!enabled) {
+            return;
+        }
+
+        double latencyMs = latencyNanos / 1_000_000.0;
+        double rate = status >= 400 || latencyMs >= slowMs
+            ? 1.0
+            : routeRates.getOrDefault(method + " " + route, defaultRate);
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            sampledOutCounter.increment();
+            return;
+        }
+
+        Entry entry = new Entry(Instant.now().toString(), method, route, status, round(latencyMs),
+            statements, rows, round(jdbcNanos / 1_000_000.0), rate);
+        if (!queue.offer(entry)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 100) / 100.0;
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(WRITE_BATCH);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                queue.drainTo(batch, WRITE_BATCH - 1);
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Shutting down: write what is left
+        queue.drainTo(batch);
+        write(batch);
+    }
+
+    private void write(List<Entry> batch) {
+        for (Entry entry : batch) {
+            try {
+                ACCESS.info(objectMapper.writeValueAsString(entry));
+                loggedCounter.increment();
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.warn("Access log entry not written: {}", e.getMessage());
+            }
+        }
+        batch.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.interrupt();
+        writer.join(5000);
+    }
+}
@@ -0,0 +1,157 @@
+package com.ofw.service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-pod admission control for uploads.
+ *
+ * At most max-concurrent uploads run at once; up to max-queued more wait (FIFO) for at
+ * most max-wait-ms. Anything beyond that is rejected with a Retry-After hint derived from
+ * the recent average upload duration, so large uploads cannot take every pooled DB
+ * connection away from the read API.
+ *
+ * Meters:
+ * - ofw.upload.admission.active   (gauge) - uploads holding a permit
+ * - ofw.upload.admission.queued   (gauge) - uploads waiting for a permit
+ * - ofw.upload.admission.wait     (timer) - time spent waiting, admitted or not
+ * - ofw.upload.admission.rejected (counter, tag: reason) - queue_full / timeout
+ */
+@Component
+@Slf4j
+public class UploadAdmission {
+
+    private static final long MAX_RETRY_AFTER_SECONDS = 300;
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitMillis;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile double averageHoldMillis;
+
+    private final Timer waitTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public UploadAdmission(MeterRegistry registry,
+                           @Value("${ofw.upload.admission.max-concurrent:2}") int maxConcurrent,
+                           @Value("${ofw.upload.admission.max-queued:8}") int maxQueued,
+                           @Value("${ofw.upload.admission.max-wait-ms:30000}") long maxWaitMillis) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+
+        Gauge.builder("ofw.upload.admission.active", active, AtomicInteger::get)
+            .description("Uploads currently holding an admission permit")
+            .register(registry);
+        Gauge.builder("ofw.upload.admission.queued", queued, AtomicInteger::get)
+            .description("Uploads waiting for an admission permit")
+            .register(registry);
+        this.waitTimer = Timer.builder("ofw.upload.admission.wait")
+            .description("Time uploads spend waiting for admission")
+            .register(registry);
+        this.rejectedQueueFull = Counter.builder("ofw.upload.admission.rejected")
+            .description("Uploads rejected by admission control")
+            .tag("reason", "queue_full")
+            .register(registry);
+        this.rejectedTimeout = Counter.builder("ofw.upload.admission.rejected")
+            .description("Uploads rejected by admission control")
+            .tag("reason", "timeout")
+            .register(registry);
+    }
+
+    /**
+     * Admit an upload, waiting in the queue if all permits are taken.
+     *
+     * @return Permit that must be released when the upload finishes
+     * @throws UploadRejectedException if the queue is full or the wait times out
+     */
+    public Permit acquire() {
+        if (permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return admitted();
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new UploadRejectedException("Upload queue is full", retryAfterSeconds());
+        }
+
+        long startNanos = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            queued.decrementAndGet();
+            waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            rejectedTimeout.increment();
+            throw new UploadRejectedException("Timed out waiting for upload capacity", retryAfterSeconds());
+        }
+        return admitted();
+    }
+
+    private Permit admitted() {
+        active.incrementAndGet();
+        return new Permit(System.nanoTime());
+    }
+
+    /**
+     * Estimate how long until a new upload could be admitted.
+     */
+    private long retryAfterSeconds() {
+        double holdMillis = averageHoldMillis > 0 ? averageHoldMillis : maxWaitMillis;
+        double waves = (double) (queued.get() + maxConcurrent) / maxConcurrent;
+        long seconds = (long) Math.ceil(holdMillis * waves / 1000.0);
+        return Math.max(1, Math.min(seconds, MAX_RETRY_AFTER_SECONDS));
+    }
+
+    /**
+     * Admission permit; release exactly once (further calls are ignored).
+     */
+    public class Permit implements AutoCloseable {
+
+        private final long admittedNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long admittedNanos) {
+            this.admittedNanos = admittedNanos;
+        }
+
+        public void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            double heldMillis = (System.nanoTime() - admittedNanos) / 1_000_000.0;
+            // Exponentially weighted so Retry-After follows the current upload sizes
+            averageHoldMillis = averageHoldMillis == 0 ? heldMillis : 0.8 * averageHoldMillis + 0.2 * heldMillis;
+            active.decrementAndGet();
+            permits.release();
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ofw.service.admission;
+
+/**
+ * Thrown when an upload cannot be admitted within the configured queue depth or wait time.
+ */
+public class UploadRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UploadRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Suggested client back-off, sent as the Retry-After header.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,153 @@
+package com.ofw.service.archive;
+
+import com.ofw.model.entity.ArchivedMessage;
+import com.ofw.repository.ArchivedMessageRepository;
+import com.ofw.repository.FolderRepository;
+import com.ofw.service.shard.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Moves old messages from messages to messages_archive, and back when one is written.
+ *
+ * Messages dated more than ofw.archive.after-days ago are moved oldest first, in small
+ * batches, each in its own short transaction: the rows are copied to the archive, deleted
+ * from messages and counted into the folder's archived counts. Recipients, attachments
+ * and bodies are keyed by the surrogate ID, which the archive keeps, so they don't move.
+ * messages and its indexes then only hold recent mail.
+ *
+ * Lists merge the archive in by date once a page reaches it (see MessageService), and
+ * detail reads fall back to it when a message is not found in messages. Writes call {@link #restore(Long)} first, so archived rows never change;
+ * a restored message is archived again by the next run.
+ *
+ * Several replicas may run the job at once; a batch that collides with another replica's
+ * rolls back and is retried on the next run.
+ */
+@Component
+@Slf4j
+public class MessageArchiver {
+
+    private final ArchivedMessageRepository archiveRepository;
+    private final FolderRepository folderRepository;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+    private final Counter restoredCounter;
+    private final boolean enabled;
+    private final int afterDays;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    public MessageArchiver(ArchivedMessageRepository archiveRepository,
+                           FolderRepository folderRepository,
+                           Shards shards,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry registry,
+                           @Value("${ofw.archive.enabled:false}") boolean enabled,
+                           @Value("${ofw.archive.after-days:365}") int afterDays,
+                           @Value("${ofw.archive.batch-size:500}") int batchSize,
+                           @Value("${ofw.archive.pause-ms:100}") long pauseMillis) {
+        this.archiveRepository = archiveRepository;
+        this.folderRepository = folderRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+
+        this.archivedCounter = Counter.builder("ofw.archive.archived")
+            .description("Messages moved to messages_archive")
+            .register(registry);
+        this.restoredCounter = Counter.builder("ofw.archive.restored")
+            .description("Archived messages moved back to messages for a write")
+            .register(registry);
+    }
+
+    /**
+     * Move everything that is due, batch by batch.
+     */
+    @Scheduled(initialDelayString = "${ofw.archive.initial-delay-ms:60000}",
+               fixedDelayString = "${ofw.archive.interval-ms:3600000}")
+    public void archive() {
+        if (enabled) {
+            shards.forEach(this::archiveShard);
+        }
+    }
+
+    private void archiveShard() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        long total = 0;
+        try {
+            while (true) {
+                Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                total += moved;
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (DataIntegrityViolationException e) {
+            log.info("Message archiving collided with another replica, retrying next run");
+        } catch (Exception e) {
+            log.warn("Message archiving failed: {}", e.getMessage());
+        }
+
+        if (total > 0) {
+            log.info("Archived {} messages dated before {}", total, cutoff);
+        }
+    }
+
+    /**
+     * Move an archived message back to messages so it can be changed. Must run inside the
+     * writing transaction, before the message is loaded.
+     *
+     * @return false if the message is not archived
+     */
+    public boolean restore(Long messageId) {
+        Optional<ArchivedMessage> archived = archiveRepository.findByMessageId(messageId);
+        if (archived.isEmpty()) {
+            return false;
+        }
+
+        ArchivedMessage message = archived.get();
+        archiveRepository.copyToMessages(message.getId());
+        archiveRepository.deleteArchived(message.getId());
+        folderRepository.addArchivedMessages(message.getFolder().getId(), -1,
+            Boolean.TRUE.equals(message.getIsRead()) ? 0 : -1);
+
+        restoredCounter.increment();
+        log.debug("Restored archived message {}", messageId);
+        return true;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = archiveRepository.findArchivableIds(cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        for (Object[] row : archiveRepository.countByFolder(ids)) {
+            folderRepository.addArchivedMessages(((Number) row[0]).longValue(),
+                ((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+        }
+        archiveRepository.copyFromMessages(ids);
+        archiveRepository.deleteFromMessages(ids);
+
+        archivedCounter.increment(ids.size());
+        return ids.size();
+    }
+}
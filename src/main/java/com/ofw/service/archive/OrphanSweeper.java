@@ -0,0 +1,111 @@
+package com.ofw.service.archive;
+
+import com.ofw.repository.ArchivedMessageRepository;
+import com.ofw.service.shard.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deletes recipients, attachments and bodies whose message is gone.
+ *
+ * Their message_id may point into messages or messages_archive, so they have no foreign key
+ * to either, and a folder or user deleted in the database takes its messages (through the
+ * cascades on those tables) but leaves these rows behind. The application's own message
+ * delete removes them itself.
+ *
+ * The id space is walked in ranges of ofw.archive.orphan-sweep.span ids, each in its own
+ * short transaction, so no statement locks more than one range.
+ *
+ * Meters:
+ * - ofw.archive.orphans.deleted: rows deleted, tagged by table
+ */
+@Component
+@Slf4j
+public class OrphanSweeper {
+
+    private final ArchivedMessageRepository archiveRepository;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter recipientsCounter;
+    private final Counter attachmentsCounter;
+    private final Counter bodiesCounter;
+    private final boolean enabled;
+    private final long span;
+    private final long pauseMillis;
+
+    public OrphanSweeper(ArchivedMessageRepository archiveRepository,
+                         Shards shards,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry registry,
+                         @Value("${ofw.archive.orphan-sweep.enabled:true}") boolean enabled,
+                         @Value("${ofw.archive.orphan-sweep.span:10000}") long span,
+                         @Value("${ofw.archive.pause-ms:100}") long pauseMillis) {
+        this.archiveRepository = archiveRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.span = span;
+        this.pauseMillis = pauseMillis;
+
+        this.recipientsCounter = deletedCounter(registry, "message_recipients");
+        this.attachmentsCounter = deletedCounter(registry, "attachments");
+        this.bodiesCounter = deletedCounter(registry, "message_bodies");
+    }
+
+    private static Counter deletedCounter(MeterRegistry registry, String table) {
+        return Counter.builder("ofw.archive.orphans.deleted")
+            .description("Rows deleted because their message no longer exists")
+            .tag("table", table)
+            .register(registry);
+    }
+
+    /**
+     * Sweep every shard once.
+     */
+    @Scheduled(initialDelayString = "${ofw.archive.orphan-sweep.initial-delay-ms:300000}",
+               fixedDelayString = "${ofw.archive.orphan-sweep.interval-ms:86400000}")
+    public void sweep() {
+        if (enabled) {
+            shards.forEach(this::sweepShard);
+        }
+    }
+
+    private void sweepShard() {
+        long deleted = 0;
+        try {
+            Long maxId = transactionTemplate.execute(status -> archiveRepository.findMaxReferencedId());
+            for (long next = 0; maxId != null && next < maxId; next += span) {
+                long fromId = next;
+                Integer swept = transactionTemplate.execute(status -> sweepRange(fromId, fromId + span));
+                if (swept != null && swept > 0) {
+                    deleted += swept;
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Orphan sweep failed: {}", e.getMessage());
+        }
+
+        if (deleted > 0) {
+            log.info("Deleted {} recipients, attachments and bodies of deleted messages", deleted);
+        }
+    }
+
+    private int sweepRange(long fromId, long toId) {
+        int recipients = archiveRepository.deleteOrphanRecipients(fromId, toId);
+        int attachments = archiveRepository.deleteOrphanAttachments(fromId, toId);
+        int bodies = archiveRepository.deleteOrphanBodies(fromId, toId);
+        recipientsCounter.increment(recipients);
+        attachmentsCounter.increment(attachments);
+        bodiesCounter.increment(bodies);
+        return recipients + attachments + bodies;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ofw.service.blob;
+
+import com.ofw.service.upload.SpooledUpload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * Local content-addressed blob store.
+ *
+ * Blobs are stored once per SHA-256 under {@code <root>/<first two hex chars>/<hash>},
+ * so identical attachments on different messages share one file. Writes go to
+ * {@code <root>/tmp} first and are renamed into place, so a blob path either does not
+ * exist or holds the complete content. Blobs are immutable; with several replicas the
+ * root must be a shared volume.
+ */
+@Component
+@Slf4j
+public class BlobStore {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final Path tmpDir;
+
+    public BlobStore(@Value("${ofw.blob.root:${java.io.tmpdir}/ofw-blobs}") Path root) {
+        try {
+            Files.createDirectories(root.resolve("tmp"));
+            // Canonical, because Tomcat's sendfile only accepts canonical file names
+            this.root = root.toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create blob store at " + root, e);
+        }
+        this.tmpDir = this.root.resolve("tmp");
+    }
+
+    /**
+     * Hash and size of a stored blob.
+     */
+    public record StoredBlob(String hash, long size) {
+    }
+
+    /**
+     * Store a multipart file, de-duplicating by content.
+     */
+    public StoredBlob store(MultipartFile file) throws IOException {
+        try (SpooledUpload upload = SpooledUpload.spool(file, tmpDir)) {
+            String hash = upload.sha256();
+            long size = upload.size();
+            Path target = resolve(hash);
+
+            if (Files.exists(target)) {
+                log.debug("Blob {} already stored", hash);
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(upload.getPath(), target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(upload.getPath(), target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                log.info("Stored blob {} ({} bytes)", hash, size);
+            }
+            return new StoredBlob(hash, size);
+        }
+    }
+
+    /**
+     * Absolute path of a blob (which may not exist).
+     *
+     * @throws IllegalArgumentException if the hash is not a lowercase hex SHA-256
+     */
+    public Path resolve(String hash) {
+        if (hash == null || !SHA256_HEX.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash: " + hash);
+        }
+        return root.resolve(relativePath(hash));
+    }
+
+    /**
+     * Path of a blob relative to the store root, as kept in attachments.file_path.
+     */
+    public String relativePath(String hash) {
+        return hash.substring(0, 2) + "/" + hash;
+    }
+
+    public boolean exists(String hash) {
+        return Files.isRegularFile(resolve(hash));
+    }
+}
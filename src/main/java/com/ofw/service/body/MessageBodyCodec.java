@@ -0,0 +1,113 @@
+package com.ofw.service.body;
+
+import com.ofw.model.entity.MessageBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes message bodies for message_bodies.
+ *
+ * Bodies are UTF-8 compressed with raw Deflate (java.util.zip, no extra dependency).
+ * Short bodies, and bodies that don't shrink, are stored as-is with encoding IDENTITY.
+ */
+public final class MessageBodyCodec {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private MessageBodyCodec() {
+    }
+
+    /**
+     * Encode a body into a new (unsaved) MessageBody for the given messages.id.
+     *
+     * @param minCompressBytes Bodies shorter than this (in UTF-8 bytes) are not compressed
+     */
+    public static MessageBody encode(Long id, String body, int minCompressBytes) {
+        byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+        String encoding = MessageBody.ENCODING_IDENTITY;
+        byte[] content = raw;
+
+        if (raw.length >= minCompressBytes) {
+            byte[] deflated = deflate(raw);
+            if (deflated.length < raw.length) {
+                encoding = MessageBody.ENCODING_DEFLATE;
+                content = deflated;
+            }
+        }
+
+        return MessageBody.builder()
+            .id(id)
+            .encoding(encoding)
+            .originalLength(raw.length)
+            .content(content)
+            .build();
+    }
+
+    /**
+     * Decode a stored body back to text.
+     *
+     * @throws IllegalStateException if the encoding is unknown or the content is corrupt
+     */
+    public static String decode(MessageBody body) {
+        return switch (body.getEncoding()) {
+            case MessageBody.ENCODING_IDENTITY -> new String(body.getContent(), StandardCharsets.UTF_8);
+            case MessageBody.ENCODING_DEFLATE -> new String(
+                inflate(body.getContent(), body.getOriginalLength()), StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException(
+                "Unknown body encoding " + body.getEncoding() + " for message " + body.getId());
+        };
+    }
+
+    /**
+     * Raw Deflate, as stored for ENCODING_DEFLATE. Also used for other compressed blobs.
+     */
+    public static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inverse of {@link #deflate(byte[])}.
+     *
+     * @throws IllegalStateException if the content is corrupt or shorter than originalLength
+     */
+    public static byte[] inflate(byte[] content, int originalLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(content);
+            // The original length is known, so inflate straight into the result
+            byte[] result = new byte[originalLength];
+            int offset = 0;
+            while (offset < originalLength && !inflater.finished()) {
+                int n = inflater.inflate(result, offset, originalLength - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += n;
+            }
+            if (offset != originalLength) {
+                throw new IllegalStateException("Truncated body: expected " + originalLength + " bytes, got " + offset);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt deflated body", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
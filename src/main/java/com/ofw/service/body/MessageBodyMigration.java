@@ -0,0 +1,154 @@
+package com.ofw.service.body;
+
+import com.ofw.model.entity.MessageLegacyBody;
+import com.ofw.repository.MessageBodyRepository;
+import com.ofw.repository.MessageLegacyBodyRepository;
+import com.ofw.service.shard.ShardContext;
+import com.ofw.service.shard.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves legacy messages.body values into message_bodies while the service keeps running.
+ *
+ * Rows are walked in primary key order (keyset pagination, never OFFSET) in small batches,
+ * each in its own short transaction: bodies are compressed and inserted, then the legacy
+ * column is cleared for the batch. Reads stay correct at every point because the detail
+ * path prefers message_bodies and falls back to messages.body. A short pause between
+ * batches keeps replication lag and lock time down.
+ *
+ * Several replicas may run the job at once; a batch that collides with another replica's
+ * insert rolls back and is retried on the next run. Once a run finds nothing left to move
+ * on a shard the job stops querying that shard until restart.
+ */
+@Component
+@Slf4j
+public class MessageBodyMigration {
+
+    private final MessageLegacyBodyRepository legacyBodyRepository;
+    private final MessageBodyRepository bodyRepository;
+    private final MessageBodyService bodyService;
+    private final Shards shards;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter migratedCounter;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    /** Shards found with nothing left to migrate. */
+    private final Set<Integer> complete = ConcurrentHashMap.newKeySet();
+
+    public MessageBodyMigration(MessageLegacyBodyRepository legacyBodyRepository,
+                                MessageBodyRepository bodyRepository,
+                                MessageBodyService bodyService,
+                                Shards shards,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry registry,
+                                @Value("${ofw.message-body.migration.enabled:true}") boolean enabled,
+                                @Value("${ofw.message-body.migration.batch-size:200}") int batchSize,
+                                @Value("${ofw.message-body.migration.pause-ms:50}") long pauseMillis) {
+        this.legacyBodyRepository = legacyBodyRepository;
+        this.bodyRepository = bodyRepository;
+        this.bodyService = bodyService;
+        this.shards = shards;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+
+        this.migratedCounter = Counter.builder("ofw.message_body.migrated")
+            .description("Legacy message bodies moved to message_bodies")
+            .register(registry);
+    }
+
+    /**
+     * Migrate all remaining legacy bodies, batch by batch.
+     */
+    @Scheduled(initialDelayString = "${ofw.message-body.migration.initial-delay-ms:30000}",
+               fixedDelayString = "${ofw.message-body.migration.interval-ms:300000}")
+    public void migrate() {
+        if (enabled && complete.size() < shards.count()) {
+            shards.forEach(this::migrateShard);
+        }
+    }
+
+    private void migrateShard() {
+        if (complete.contains(ShardContext.current())) {
+            return;
+        }
+
+        long afterId = 0;
+        long total = 0;
+        try {
+            while (true) {
+                long from = afterId;
+                BatchResult batch = transactionTemplate.execute(status -> migrateBatch(from));
+                if (batch == null || batch.rows() == 0) {
+                    break;
+                }
+                afterId = batch.lastId();
+                total += batch.rows();
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (DataIntegrityViolationException e) {
+            log.info("Message body migration collided with another replica after id {}, retrying next run", afterId);
+            return;
+        } catch (Exception e) {
+            log.warn("Message body migration failed after id {}: {}", afterId, e.getMessage());
+            return;
+        }
+
+        if (total > 0) {
+            log.info("Migrated {} message bodies to message_bodies", total);
+        } else {
+            log.info("No legacy message bodies left to migrate");
+            complete.add(ShardContext.current());
+        }
+    }
+
+    private BatchResult migrateBatch(long afterId) {
+        List<MessageLegacyBody> rows = legacyBodyRepository.findBatchAfter(afterId, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return new BatchResult(0, afterId);
+        }
+
+        List<Long> ids = rows.stream().map(MessageLegacyBody::getId).toList();
+        // Bodies written by a newer code path win over the legacy copy
+        Set<Long> existing = new HashSet<>(bodyRepository.findExistingIds(ids));
+        for (MessageLegacyBody row : rows) {
+            if (!existing.contains(row.getId())) {
+                entityManager.persist(bodyService.encode(row.getId(), row.getBody()));
+            }
+        }
+        entityManager.flush();
+        legacyBodyRepository.clearBodies(ids);
+        // The cleared rows are still in the persistence context with their old body
+        entityManager.clear();
+
+        migratedCounter.increment(rows.size());
+        return new BatchResult(rows.size(), ids.get(ids.size() - 1));
+    }
+
+    private record BatchResult(int rows, long lastId) {
+    }
+}
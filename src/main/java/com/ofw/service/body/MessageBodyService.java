@@ -0,0 +1,76 @@
+package com.ofw.service.body;
+
+import com.ofw.model.entity.Message;
+import com.ofw.model.entity.MessageBody;
+import com.ofw.model.entity.MessageLegacyBody;
+import com.ofw.model.entity.MessageView;
+import com.ofw.repository.MessageBodyRepository;
+import com.ofw.repository.MessageLegacyBodyRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads and writes message bodies in message_bodies.
+ *
+ * Bodies are loaded only by the message detail path. Messages whose body has not been
+ * migrated yet fall back to the legacy messages.body column.
+ */
+@Service
+@Slf4j
+public class MessageBodyService {
+
+    private final MessageBodyRepository bodyRepository;
+    private final MessageLegacyBodyRepository legacyBodyRepository;
+    private final EntityManager entityManager;
+    private final int minCompressBytes;
+
+    public MessageBodyService(MessageBodyRepository bodyRepository,
+                              MessageLegacyBodyRepository legacyBodyRepository,
+                              EntityManager entityManager,
+                              @Value("${ofw.message-body.min-compress-bytes:256}") int minCompressBytes) {
+        this.bodyRepository = bodyRepository;
+        this.legacyBodyRepository = legacyBodyRepository;
+        this.entityManager = entityManager;
+        this.minCompressBytes = minCompressBytes;
+    }
+
+    /**
+     * Store the body of a newly saved message. Must run inside the message's transaction.
+     *
+     * @param message Saved message (its surrogate ID is the body's key)
+     * @param body Body text; null stores nothing
+     */
+    public void saveBody(Message message, String body) {
+        if (body == null) {
+            return;
+        }
+        // persist, not save(): the key is assigned, so save() would SELECT before inserting
+        entityManager.persist(encode(message.getId(), body));
+    }
+
+    /**
+     * Load and decompress the body of a message.
+     *
+     * @return Body text, or null if the message has none
+     */
+    public String getBody(MessageView message) {
+        return bodyRepository.findById(message.getId())
+            .map(MessageBodyCodec::decode)
+            .orElseGet(() -> legacyBodyRepository.findById(message.getId())
+                .map(MessageLegacyBody::getBody)
+                .orElse(null));
+    }
+
+    /**
+     * Delete the body of a message that is about to be deleted.
+     */
+    public void deleteBody(Message message) {
+        bodyRepository.deleteByMessageKey(message.getId());
+    }
+
+    MessageBody encode(Long id, String body) {
+        return MessageBodyCodec.encode(id, body, minCompressBytes);
+    }
+}
@@ -0,0 +1,211 @@
+package com.ofw.service.cache;
+
+import com.ofw.model.dto.MessagesResponseDTO;
+import com.ofw.model.entity.Folder;
+import com.ofw.service.changelog.ChangeEvent;
+import com.ofw.service.changelog.ChangeEvent.Change;
+import com.ofw.service.changelog.ChangeLogService;
+import com.ofw.service.shard.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of message list pages (GET /pub/v3/messages).
+ *
+ * Every folder has a write version, and each entry is stamped with the version of its
+ * folder read before the page was loaded. A change to the folder bumps the version, which
+ * makes all of its entries stale at once without scanning the cache; a stale entry is
+ * replaced on its next read. The list of all folders has its own version, bumped by a
+ * change to any folder.
+ *
+ * Versions are bumped from ChangeEvents: ingestion and the MessageService mutations record
+ * a FOLDER change for every folder they touch, published right after their commit, and
+ * changes from other replicas arrive through ChangeLogPoller. The loader runs in a
+ * read-only transaction started after the version is read, so an entry never holds data
+ * older than its stamp. Concurrent loads of the same page and stamp share one computation
+ * through SingleFlight, cacheable or not. Change events carry external folder IDs; a
+ * folder's pages are only cached once a load has mapped its external ID, so no change can
+ * miss its entries.
+ *
+ * Pages, versions and ID mappings are kept per shard, since folders.id values repeat
+ * across shards; a ChangeEvent only touches the shard it was committed to.
+ *
+ * Cached responses are shared between requests and must not be modified.
+ *
+ * Meters:
+ * - ofw.message_cache.requests (counter, tag: result) - hit / miss
+ * - ofw.message_cache.size     (gauge) - cached pages
+ */
+@Component
+@Slf4j
+public class MessagePageCache {
+
+    /**
+     * Cached list page; folderId is folders.id, or null for all messages.
+     */
+    public record Key(Long folderId, int page, int size, String sortField, Sort.Direction direction) {
+    }
+
+    private record PageKey(int shard, Key key) {
+    }
+
+    private record Entry(long version, MessagesResponseDTO response) {
+    }
+
+    private record Load(PageKey key, long version) {
+    }
+
+    /**
+     * Write versions and folder mappings of one shard.
+     */
+    private static final class ShardVersions {
+        /** Write versions by folders.id; present once the folder's external ID is mapped. */
+        final Map<Long, AtomicLong> folders = new ConcurrentHashMap<>();
+        /** folders.id by external folder ID. */
+        final Map<Long, Long> folderIds = new ConcurrentHashMap<>();
+        final AtomicLong allFolders = new AtomicLong();
+
+        AtomicLong version(Long folderId) {
+            return folderId != null ? folders.get(folderId) : allFolders;
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final int maxPage;
+    private final TransactionTemplate readOnlyTemplate;
+    private final SingleFlight singleFlight;
+
+    private final Map<PageKey, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Integer, ShardVersions> shards = new ConcurrentHashMap<>();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public MessagePageCache(PlatformTransactionManager transactionManager,
+                            SingleFlight singleFlight,
+                            MeterRegistry registry,
+                            @Value("${ofw.message-cache.enabled:true}") boolean enabled,
+                            @Value("${ofw.message-cache.max-entries:10000}") int maxEntries,
+                            @Value("${ofw.message-cache.max-page:0}") int maxPage) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxPage = maxPage;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.singleFlight = singleFlight;
+        this.hitCounter = counter(registry, "hit");
+        this.missCounter = counter(registry, "miss");
+        Gauge.builder("ofw.message_cache.size", entries, Map::size)
+            .description("Cached message list pages")
+            .register(registry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("ofw.message_cache.requests")
+            .description("Message list page lookups by result")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    /**
+     * The cached page, or the loader's result in a read-only transaction.
+     *
+     * Only pages up to ofw.message-cache.max-page are cached.
+     */
+    public MessagesResponseDTO get(Key key, Supplier<MessagesResponseDTO> loader) {
+        PageKey pageKey = new PageKey(ShardContext.current(), key);
+        AtomicLong version = enabled && key.page() <= maxPage
+            ? versions(pageKey.shard()).version(key.folderId())
+            : null;
+        if (version == null) {
+            return load(new Load(pageKey, -1), loader);
+        }
+
+        long stamp = version.get();
+        Entry entry = entries.get(pageKey);
+        if (entry != null && entry.version() == stamp) {
+            hitCounter.increment();
+            return entry.response();
+        }
+
+        missCounter.increment();
+        MessagesResponseDTO response = load(new Load(pageKey, stamp), loader);
+        entries.put(pageKey, new Entry(stamp, response));
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+        return response;
+    }
+
+    /**
+     * Map a loaded folder's external ID, so its pages can be cached from the next read on.
+     */
+    public void folderLoaded(Folder folder) {
+        ShardVersions shard = versions(ShardContext.current());
+        if (shard.folderIds.putIfAbsent(folder.getFolderId(), folder.getId()) == null) {
+            // After the mapping: a version present means changes to the folder reach it
+            shard.folders.putIfAbsent(folder.getId(), new AtomicLong());
+        }
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        ShardVersions shard = versions(event.getShard());
+        boolean folderChanged = false;
+        for (Change change : event.getChanges()) {
+            if (!ChangeLogService.ENTITY_FOLDER.equals(change.getEntityType())) {
+                continue;
+            }
+            folderChanged = true;
+            Long id = shard.folderIds.get(change.getEntityId());
+            AtomicLong version = id != null ? shard.folders.get(id) : null;
+            if (version != null) {
+                version.incrementAndGet();
+            }
+        }
+        if (folderChanged) {
+            shard.allFolders.incrementAndGet();
+        }
+    }
+
+    private MessagesResponseDTO load(Load load, Supplier<MessagesResponseDTO> loader) {
+        // Coalesce first: followers wait without holding a connection. With the stamp in the
+        // key, a page stored under a stamp was always loaded after that stamp was read.
+        return singleFlight.execute("messages", load, () -> readOnlyTemplate.execute(status -> loader.get()));
+    }
+
+    private ShardVersions versions(int shard) {
+        return shards.computeIfAbsent(shard, id -> new ShardVersions());
+    }
+
+    /**
+     * Drop stale entries, then arbitrary ones until the cache is back within its bound.
+     */
+    private synchronized void evict() {
+        entries.entrySet().removeIf(entry -> {
+            PageKey key = entry.getKey();
+            AtomicLong version = versions(key.shard()).version(key.key().folderId());
+            return version == null || version.get() != entry.getValue().version();
+        });
+        Iterator<PageKey> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        log.debug("Evicted message pages down to {}", entries.size());
+    }
+}
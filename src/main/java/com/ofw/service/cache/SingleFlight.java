@@ -0,0 +1,140 @@
+package com.ofw.service.cache;
+
+import com.ofw.service.changelog.ChangeEvent;
+import com.ofw.service.shard.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent reads.
+ *
+ * The first caller for a key (the leader) runs the loader; callers arriving with the same
+ * key while it runs (followers) wait for it and get the same result object, or the same
+ * exception. Nothing is kept once the leader finishes, so this is not a cache.
+ *
+ * A flight is only joined when no change was published since it started: every ChangeEvent
+ * bumps a write version that is part of the key. A client that reads after its own write
+ * committed therefore never gets a result computed before it. Loaders must not start a
+ * transaction before calling in here, or followers would hold connections while waiting.
+ * Flights are per shard: the same key on two shards reads two different databases.
+ *
+ * Meters (tag: flight):
+ * - ofw.single_flight.calls  (counter, tag: role) - leader / follower calls
+ * - ofw.single_flight.shared (summary) - calls served per computation; its mean is the coalescing ratio
+ */
+@Component
+public class SingleFlight {
+
+    private record FlightKey(String flight, int shard, Object key, long writeVersion) {
+    }
+
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        int callers = 1;
+    }
+
+    private record Meters(Counter leaders, Counter followers, DistributionSummary shared) {
+    }
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+
+    private final Map<FlightKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+    private final AtomicLong writeVersion = new AtomicLong();
+
+    public SingleFlight(MeterRegistry registry,
+                        @Value("${ofw.single-flight.enabled:true}") boolean enabled) {
+        this.registry = registry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Run the loader, or wait for an identical call already running.
+     *
+     * @param flight Name of the read, used as the meter tag
+     * @param key Arguments of the read; needs equals and hashCode
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String flight, Object key, Supplier<V> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        FlightKey flightKey = new FlightKey(flight, ShardContext.current(), key, writeVersion.get());
+        Flight created = new Flight();
+        // Joining happens under the map's bin lock, so the count is final once the flight is removed
+        Flight current = inFlight.compute(flightKey, (k, running) -> {
+            if (running == null) {
+                return created;
+            }
+            running.callers++;
+            return running;
+        });
+        Meters flightMeters = meters(flight);
+
+        if (current != created) {
+            flightMeters.followers().increment();
+            return (V) join(current);
+        }
+
+        flightMeters.leaders().increment();
+        try {
+            V value = loader.get();
+            created.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            created.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, created);
+            flightMeters.shared().record(created.callers);
+        }
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        writeVersion.incrementAndGet();
+    }
+
+    private static Object join(Flight flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private Meters meters(String flight) {
+        return meters.computeIfAbsent(flight, name -> new Meters(
+            Counter.builder("ofw.single_flight.calls")
+                .description("Coalesced reads by role")
+                .tags("flight", name, "role", "leader")
+                .register(registry),
+            Counter.builder("ofw.single_flight.calls")
+                .description("Coalesced reads by role")
+                .tags("flight", name, "role", "follower")
+                .register(registry),
+            DistributionSummary.builder("ofw.single_flight.shared")
+                .description("Calls served per computation")
+                .tag("flight", name)
+                .register(registry)));
+    }
+}
@@ -0,0 +1,41 @@
+package com.ofw.service.changelog;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Batch of committed changes, published as a Spring application event.
+ *
+ * Local events are published right after this instance commits; remote events are
+ * published by ChangeLogPoller for changes committed by other replicas. Cache owners
+ * listen with {@code @EventListener} and evict whatever the changes touch.
+ */
+@Value
+public class ChangeEvent {
+
+    List<Change> changes;
+
+    /** True when the changes were committed by another replica. */
+    boolean remote;
+
+    /** Shard the changes were committed to; entity IDs are only unique within a shard. */
+    int shard;
+
+    /**
+     * Single changed entity, keyed by its external ID.
+     */
+    @Value
+    public static class Change {
+        String entityType;
+        Long entityId;
+        String changeType;
+    }
+
+    /**
+     * Whether any change in this batch touches the given entity type.
+     */
+    public boolean touches(String entityType) {
+        return changes.stream().anyMatch(change -> change.getEntityType().equals(entityType));
+    }
+}
@@ -0,0 +1,201 @@
+package com.ofw.service.changelog;
+
+import com.ofw.model.entity.ChangeLogEntry;
+import com.ofw.repository.ChangeLogRepository;
+import com.ofw.service.changelog.ChangeEvent.Change;
+import com.ofw.service.shard.ShardContext;
+import com.ofw.service.shard.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Polls change_log for entries committed by other replicas and republishes them
+ * as remote ChangeEvents, one event per poll.
+ *
+ * The poller keeps a watermark (highest ID seen). Auto-increment IDs are assigned at
+ * insert time but become visible at commit time, so a lower ID can appear after a higher
+ * one. Missing IDs below the watermark are therefore remembered as gaps and re-checked on
+ * every poll until they show up or the grace period expires (rolled-back transactions
+ * leave permanent gaps). Worst-case staleness is the poll interval for normal commits
+ * and the gap grace period for commits that lag behind a later one.
+ *
+ * With sharding every shard has its own change_log, polled in turn with its own watermark.
+ */
+@Component
+@Slf4j
+public class ChangeLogPoller {
+
+    /** Upper bound on tracked gaps; a larger jump is treated as an ID reservation. */
+    private static final int MAX_TRACKED_GAPS = 10_000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeLogService changeLogService;
+    private final Shards shards;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter appliedCounter;
+    private final int batchSize;
+    private final long gapGraceMillis;
+    private final long retentionHours;
+
+    /** Position in each shard's change_log; shard IDs are independent sequences. */
+    private final Map<Integer, Cursor> cursors = new ConcurrentHashMap<>();
+    private volatile long lastPollMillis = System.currentTimeMillis();
+
+    /**
+     * Watermark and gaps of one shard.
+     */
+    private static final class Cursor {
+        final Map<Long, Long> gaps = new LinkedHashMap<>();
+        volatile long watermark = -1;
+    }
+
+    public ChangeLogPoller(ChangeLogRepository changeLogRepository,
+                           ChangeLogService changeLogService,
+                           Shards shards,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry registry,
+                           @Value("${ofw.changelog.batch-size:500}") int batchSize,
+                           @Value("${ofw.changelog.gap-grace-ms:30000}") long gapGraceMillis,
+                           @Value("${ofw.changelog.retention-hours:24}") long retentionHours) {
+        this.changeLogRepository = changeLogRepository;
+        this.changeLogService = changeLogService;
+        this.shards = shards;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.gapGraceMillis = gapGraceMillis;
+        this.retentionHours = retentionHours;
+
+        this.appliedCounter = Counter.builder("ofw.changelog.applied")
+            .description("Change log entries from other replicas applied by this instance")
+            .register(registry);
+        Gauge.builder("ofw.changelog.gaps", cursors,
+                all -> all.values().stream().mapToInt(cursor -> cursor.gaps.size()).sum())
+            .description("Change log IDs below the watermark not yet visible")
+            .register(registry);
+        Gauge.builder("ofw.changelog.poll.age", this, poller -> (System.currentTimeMillis() - poller.lastPollMillis) / 1000.0)
+            .description("Seconds since the last successful poll")
+            .baseUnit("seconds")
+            .register(registry);
+    }
+
+    /**
+     * Fetch new entries of every shard and publish them as one remote ChangeEvent per shard.
+     */
+    @Scheduled(fixedDelayString = "${ofw.changelog.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        long now = System.currentTimeMillis();
+        AtomicBoolean failed = new AtomicBoolean();
+        shards.forEach(() -> {
+            Cursor cursor = cursors.computeIfAbsent(ShardContext.current(), shard -> new Cursor());
+            if (!poll(cursor, now)) {
+                failed.set(true);
+            }
+        });
+        if (!failed.get()) {
+            lastPollMillis = now;
+        }
+    }
+
+    private boolean poll(Cursor cursor, long now) {
+        try {
+            if (cursor.watermark < 0) {
+                // Caches start empty, so history before startup is irrelevant
+                Long maxId = changeLogRepository.findMaxId();
+                cursor.watermark = maxId != null ? maxId : 0;
+                log.info("Change log poller starting at id {} on shard {}", cursor.watermark, ShardContext.current());
+                return true;
+            }
+
+            Set<Change> changes = new LinkedHashSet<>();
+
+            if (!cursor.gaps.isEmpty()) {
+                for (ChangeLogEntry entry : changeLogRepository.findByIdIn(new ArrayList<>(cursor.gaps.keySet()))) {
+                    cursor.gaps.remove(entry.getId());
+                    collect(entry, changes);
+                }
+                cursor.gaps.values().removeIf(firstSeen -> now - firstSeen > gapGraceMillis);
+            }
+
+            List<ChangeLogEntry> entries;
+            do {
+                entries = changeLogRepository.findByIdGreaterThanOrderByIdAsc(
+                    cursor.watermark, PageRequest.of(0, batchSize));
+                for (ChangeLogEntry entry : entries) {
+                    trackGaps(cursor, entry.getId(), now);
+                    cursor.watermark = entry.getId();
+                    collect(entry, changes);
+                }
+            } while (entries.size() == batchSize);
+
+            if (!changes.isEmpty()) {
+                appliedCounter.increment(changes.size());
+                eventPublisher.publishEvent(new ChangeEvent(List.copyOf(changes), true, ShardContext.current()));
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Change log poll failed on shard {}: {}", ShardContext.current(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Drop entries older than the retention window.
+     */
+    @Scheduled(fixedDelayString = "${ofw.changelog.purge-interval-ms:600000}",
+               initialDelayString = "${ofw.changelog.purge-interval-ms:600000}")
+    public void purge() {
+        shards.forEach(() -> {
+            try {
+                int deleted = changeLogRepository.deleteOlderThan(LocalDateTime.now().minusHours(retentionHours));
+                if (deleted > 0) {
+                    log.info("Purged {} change log entries", deleted);
+                }
+            } catch (Exception e) {
+                log.warn("Change log purge failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void trackGaps(Cursor cursor, long id, long now) {
+        Map<Long, Long> gaps = cursor.gaps;
+        long expected = cursor.watermark + 1;
+        if (id - expected > MAX_TRACKED_GAPS) {
+            log.warn("Change log id jumped from {} to {}, not tracking gap", cursor.watermark, id);
+            return;
+        }
+        for (long missing = expected; missing < id; missing++) {
+            gaps.putIfAbsent(missing, now);
+        }
+        // Keep the map bounded even under pathological churn
+        Iterator<Long> oldest = gaps.keySet().iterator();
+        while (gaps.size() > MAX_TRACKED_GAPS && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private void collect(ChangeLogEntry entry, Set<Change> changes) {
+        if (changeLogService.getOrigin().equals(entry.getOrigin())) {
+            return;
+        }
+        changes.add(new Change(entry.getEntityType(), entry.getEntityId(), entry.getChangeType()));
+    }
+}
@@ -0,0 +1,119 @@
+package com.ofw.service.changelog;
+
+import com.ofw.model.entity.ChangeLogEntry;
+import com.ofw.repository.ChangeLogRepository;
+import com.ofw.service.changelog.ChangeEvent.Change;
+import com.ofw.service.shard.ShardContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Records mutations into the change_log table.
+ *
+ * Changes recorded inside a transaction are de-duplicated and written just before it
+ * commits, so the log rows commit (or roll back) atomically with the data they describe.
+ * Ingesting 20,000 messages into one folder therefore writes a single FOLDER row.
+ * After commit a local ChangeEvent is published so this instance invalidates immediately;
+ * other replicas pick the rows up through ChangeLogPoller.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeLogService {
+
+    public static final String ENTITY_MESSAGE = "MESSAGE";
+    public static final String ENTITY_FOLDER = "FOLDER";
+    public static final String ENTITY_USER = "USER";
+
+    public static final String CHANGE_CREATED = "CREATED";
+    public static final String CHANGE_UPDATED = "UPDATED";
+    public static final String CHANGE_DELETED = "DELETED";
+
+    /** Identifies this JVM; survives neither restarts nor rescheduling, which is intended. */
+    private static final String ORIGIN = UUID.randomUUID().toString();
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Record a change to an entity.
+     *
+     * @param entityType One of ENTITY_MESSAGE, ENTITY_FOLDER, ENTITY_USER
+     * @param entityId External ID of the entity
+     * @param changeType One of CHANGE_CREATED, CHANGE_UPDATED, CHANGE_DELETED
+     */
+    public void record(String entityType, Long entityId, String changeType) {
+        Change change = new Change(entityType, entityId, changeType);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // No surrounding transaction: write and announce immediately
+            changeLogRepository.save(toEntry(change));
+            eventPublisher.publishEvent(new ChangeEvent(List.of(change), false, ShardContext.current()));
+            return;
+        }
+
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.add(change);
+    }
+
+    /**
+     * Origin tag written with every entry from this instance.
+     */
+    public String getOrigin() {
+        return ORIGIN;
+    }
+
+    private ChangeLogEntry toEntry(Change change) {
+        return ChangeLogEntry.builder()
+            .entityType(change.getEntityType())
+            .entityId(change.getEntityId())
+            .changeType(change.getChangeType())
+            .origin(ORIGIN)
+            .build();
+    }
+
+    /**
+     * Per-transaction buffer of recorded changes.
+     */
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final Set<Change> changes = new LinkedHashSet<>();
+        /** Shard of the transaction: the ShardContext when its first change was recorded. */
+        private final int shard = ShardContext.current();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            List<ChangeLogEntry> entries = new ArrayList<>(changes.size());
+            for (Change change : changes) {
+                entries.add(toEntry(change));
+            }
+            changeLogRepository.saveAll(entries);
+            log.debug("Wrote {} change log entries", entries.size());
+        }
+
+        @Override
+        public void afterCommit() {
+            eventPublisher.publishEvent(new ChangeEvent(List.copyOf(changes), false, shard));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogService.this);
+        }
+    }
+}
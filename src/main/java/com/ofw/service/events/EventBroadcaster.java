@@ -0,0 +1,283 @@
+package com.ofw.service.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ofw.model.dto.FolderEventDTO;
+import com.ofw.model.dto.MessageEventDTO;
+import com.ofw.model.entity.Folder;
+import com.ofw.repository.FolderRepository;
+import com.ofw.repository.MessageRepository;
+import com.ofw.service.changelog.ChangeEvent;
+import com.ofw.service.changelog.ChangeEvent.Change;
+import com.ofw.service.changelog.ChangeLogService;
+import com.ofw.service.shard.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes change notifications to clients over server-sent events.
+ *
+ * Connections are async servlet requests (SseEmitter), so an idle subscriber holds a
+ * socket but no request thread. Every ChangeEvent, local or from another replica via
+ * the change log, is turned into payloads once on the ofw-events thread: folder counts are
+ * queried once per changed folder and each event is serialized once to a string.
+ *
+ * Each subscriber has a bounded queue of pending frames. Broadcasting only offers frames to
+ * the queues, and a small pool of sender threads (ofw-events-send-N) drains each queue
+ * into its emitter, building a fresh SseEventBuilder per write. A client that reads too
+ * slowly blocks at most one sender thread; once its queue is full it is closed and its
+ * EventSource reconnects, so it never delays events for other subscribers.
+ * A subscription belongs to the shard it was opened on and only gets that shard's events.
+ *
+ * Events:
+ * - folder  {id, unreadMessageCount, totalMessageCount} - new messages, read state, deletes
+ * - message {id, change} - new messages (CREATED), read state changes and deletes
+ *
+ * Meters:
+ * - ofw.events.connections (gauge) - open subscriptions
+ * - ofw.events.sent        (counter) - events written to subscribers
+ * - ofw.events.lagging     (counter) - subscribers closed because their queue was full
+ */
+@Component
+@Slf4j
+public class EventBroadcaster {
+
+    private static final String EVENT_FOLDER = "folder";
+    private static final String EVENT_MESSAGE = "message";
+    private static final Frame HEARTBEAT = new Frame(null, "heartbeat");
+
+    private final FolderRepository folderRepository;
+    private final MessageRepository messageRepository;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int maxConnections;
+    private final int queueSize;
+
+    /** Open subscriptions. */
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ofw-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService senders;
+    private final Counter sentCounter;
+    private final Counter laggingCounter;
+
+    public EventBroadcaster(FolderRepository folderRepository,
+                            MessageRepository messageRepository,
+                            ObjectMapper objectMapper,
+                            MeterRegistry registry,
+                            @Value("${ofw.events.timeout-ms:1800000}") long timeoutMillis,
+                            @Value("${ofw.events.max-connections:10000}") int maxConnections,
+                            @Value("${ofw.events.queue-size:64}") int queueSize,
+                            @Value("${ofw.events.sender-threads:4}") int senderThreads) {
+        this.folderRepository = folderRepository;
+        this.messageRepository = messageRepository;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.maxConnections = maxConnections;
+        this.queueSize = queueSize;
+
+        AtomicInteger senderIndex = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ofw-events-send-" + senderIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("ofw.events.connections", subscribers, Map::size)
+            .description("Open server-sent event subscriptions")
+            .register(registry);
+        this.sentCounter = Counter.builder("ofw.events.sent")
+            .description("Server-sent events written to subscribers")
+            .register(registry);
+        this.laggingCounter = Counter.builder("ofw.events.lagging")
+            .description("Server-sent event subscribers closed for falling behind")
+            .register(registry);
+    }
+
+    /**
+     * Open a subscription.
+     *
+     * @return Emitter for the response, or empty if this instance is at max-connections
+     */
+    public Optional<SseEmitter> subscribe() {
+        if (subscribers.size() >= maxConnections) {
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        // Completing on timeout lets EventSource reconnect instead of seeing an error
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(emitter));
+        subscribers.put(emitter, new Subscriber(emitter, ShardContext.current(), queueSize));
+        return Optional.of(emitter);
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        fanOut.execute(() -> {
+            // Folder counts are read from the shard the changes were committed to
+            try (ShardContext.Scope scope = ShardContext.use(event.getShard())) {
+                broadcast(event);
+            } catch (Exception e) {
+                log.warn("Event broadcast failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Keep idle connections open through proxies and find dead ones.
+     */
+    @Scheduled(fixedDelayString = "${ofw.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        enqueueAll(List.of(HEARTBEAT), subscribers.values());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        senders.shutdownNow();
+        subscribers.keySet().forEach(SseEmitter::complete);
+    }
+
+    private void broadcast(ChangeEvent event) throws JsonProcessingException {
+        List<Frame> frames = new ArrayList<>();
+        for (Change change : event.getChanges()) {
+            if (ChangeLogService.ENTITY_FOLDER.equals(change.getEntityType())) {
+                Optional<Folder> folder = folderRepository.findByFolderId(change.getEntityId());
+                if (folder.isPresent()) {
+                    Long id = folder.get().getId();
+                    int archived = Objects.requireNonNullElse(folder.get().getArchivedMessageCount(), 0);
+                    int archivedUnread = Objects.requireNonNullElse(folder.get().getArchivedUnreadCount(), 0);
+                    frames.add(frame(EVENT_FOLDER, FolderEventDTO.builder()
+                        .id(change.getEntityId())
+                        .unreadMessageCount((int) messageRepository.countUnreadByFolderId(id) + archivedUnread)
+                        .totalMessageCount((int) messageRepository.countByFolderId(id) + archived)
+                        .build()));
+                }
+            } else if (ChangeLogService.ENTITY_MESSAGE.equals(change.getEntityType())) {
+                frames.add(frame(EVENT_MESSAGE, MessageEventDTO.builder()
+                    .id(change.getEntityId())
+                    .change(change.getChangeType())
+                    .build()));
+            }
+        }
+        List<Subscriber> recipients = subscribers.values().stream()
+            .filter(subscriber -> subscriber.shard == event.getShard())
+            .toList();
+        enqueueAll(frames, recipients);
+    }
+
+    private Frame frame(String name, Object payload) throws JsonProcessingException {
+        // Serialized here, once, rather than by each emitter's message converter
+        return new Frame(name, objectMapper.writeValueAsString(payload));
+    }
+
+    private void enqueueAll(List<Frame> frames, Collection<Subscriber> recipients) {
+        if (frames.isEmpty()) {
+            return;
+        }
+        for (Subscriber subscriber : recipients) {
+            for (Frame frame : frames) {
+                if (!subscriber.queue.offer(frame)) {
+                    // Fell behind: close it rather than buffer without bound; the client reconnects
+                    laggingCounter.increment();
+                    subscribers.remove(subscriber.emitter);
+                    subscriber.closed = true;
+                    subscriber.queue.clear();
+                    break;
+                }
+            }
+            if (subscriber.draining.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    /**
+     * Write a subscriber's queued frames; runs on a sender thread, one per subscriber at a time.
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                if (subscriber.closed) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                Frame frame;
+                while ((frame = subscriber.queue.poll()) != null) {
+                    subscriber.emitter.send(frame.event());
+                    sentCounter.increment();
+                }
+                subscriber.draining.set(false);
+                // A frame offered after the last poll found draining still set; pick it up
+                if ((subscriber.queue.isEmpty() && !subscriber.closed)
+                        || !subscriber.draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; completeWithError triggers onError, which removes it
+            subscribers.remove(subscriber.emitter);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * A serialized event, or a comment when name is null.
+     */
+    private record Frame(String name, String data) {
+
+        SseEmitter.SseEventBuilder event() {
+            // A new builder per write: builders accumulate their output on every send
+            return name == null
+                ? SseEmitter.event().comment(data)
+                : SseEmitter.event().name(name).data(data, MediaType.TEXT_PLAIN);
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final int shard;
+        private final BlockingQueue<Frame> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, int shard, int queueSize) {
+            this.emitter = emitter;
+            this.shard = shard;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.ofw.service.folder;
+
+import com.ofw.model.entity.Folder;
+import com.ofw.repository.FolderRepository;
+import com.ofw.service.changelog.ChangeEvent;
+import com.ofw.service.changelog.ChangeLogService;
+import com.ofw.service.shard.ShardContext;
+import com.ofw.service.shard.Shards;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory catalog of all folders.
+ *
+ * Folders are a small set that only grows by uploads, so lookups read an immutable
+ * snapshot without touching the database. The snapshot is loaded when the application is
+ * ready and replaced as a whole (copy-on-write) after every FOLDER CREATED change, local or
+ * from another replica; readers always see one complete snapshot.
+ *
+ * Rebuilds read committed rows in their own transaction on the ofw-folder-catalog thread,
+ * so a folder created by a running upload is not in the catalog until it commits; callers
+ * that may run in such a transaction fall back to FolderRepository on a miss. Message counts
+ * are not part of the catalog.
+ *
+ * Each shard has its own folder rows and therefore its own snapshot; lookups read the
+ * snapshot of the current ShardContext.
+ */
+@Component
+@Slf4j
+public class FolderCatalog {
+
+    /**
+     * Immutable copy of a folder row; id is folders.id, folderId the external ID.
+     */
+    public record Entry(Long id, Long folderId, String name, String folderType, Integer folderOrder,
+                        boolean systemFolder) {
+
+        public static Entry of(Folder folder) {
+            return new Entry(folder.getId(), folder.getFolderId(), folder.getName(), folder.getFolderType(),
+                folder.getFolderOrder(), Boolean.TRUE.equals(folder.getIsSystemFolder()));
+        }
+    }
+
+    private record Snapshot(Map<Long, Entry> byFolderId, List<Entry> systemFolders, List<Entry> userFolders) {
+    }
+
+    private final FolderRepository folderRepository;
+    private final Shards shards;
+    private final TransactionTemplate loadTemplate;
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ofw-folder-catalog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Integer> rebuildsQueued = ConcurrentHashMap.newKeySet();
+
+    private final Map<Integer, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public FolderCatalog(FolderRepository folderRepository, Shards shards,
+                         PlatformTransactionManager transactionManager) {
+        this.folderRepository = folderRepository;
+        this.shards = shards;
+        // A new transaction, so a rebuild never sees the caller's uncommitted folders
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Folder by external ID.
+     */
+    public Optional<Entry> find(Long folderId) {
+        return Optional.ofNullable(current().byFolderId().get(folderId));
+    }
+
+    /**
+     * System folders, in folders.id order.
+     */
+    public List<Entry> getSystemFolders() {
+        return current().systemFolders();
+    }
+
+    /**
+     * User folders, in folders.id order.
+     */
+    public List<Entry> getUserFolders() {
+        return current().userFolders();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        shards.forEach(this::rebuild);
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        boolean created = event.getChanges().stream()
+            .anyMatch(change -> ChangeLogService.ENTITY_FOLDER.equals(change.getEntityType())
+                && ChangeLogService.CHANGE_CREATED.equals(change.getChangeType()));
+        // One queued rebuild covers every change to its shard published before it starts
+        int shard = event.getShard();
+        if (created && rebuildsQueued.add(shard)) {
+            rebuilder.execute(() -> {
+                rebuildsQueued.remove(shard);
+                try (ShardContext.Scope scope = ShardContext.use(shard)) {
+                    rebuild();
+                } catch (Exception e) {
+                    log.warn("Folder catalog rebuild failed: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private Snapshot current() {
+        int shard = ShardContext.current();
+        Snapshot current = snapshots.get(shard);
+        if (current == null) {
+            // Only before the application is ready
+            rebuild();
+            current = snapshots.get(shard);
+        }
+        return current;
+    }
+
+    /**
+     * Load all folders of the current shard into a new snapshot. Serialized, so an older read
+     * never replaces a newer one.
+     */
+    private synchronized void rebuild() {
+        List<Folder> folders = loadTemplate.execute(status -> folderRepository.findAll(Sort.by("id")));
+
+        Map<Long, Entry> byFolderId = new HashMap<>();
+        List<Entry> systemFolders = new ArrayList<>();
+        List<Entry> userFolders = new ArrayList<>();
+        for (Folder folder : folders) {
+            Entry entry = Entry.of(folder);
+            byFolderId.put(entry.folderId(), entry);
+            (entry.systemFolder() ? systemFolders : userFolders).add(entry);
+        }
+
+        snapshots.put(ShardContext.current(),
+            new Snapshot(Map.copyOf(byFolderId), List.copyOf(systemFolders), List.copyOf(userFolders)));
+        log.debug("Folder catalog loaded: {} folders on shard {}", byFolderId.size(), ShardContext.current());
+    }
+}
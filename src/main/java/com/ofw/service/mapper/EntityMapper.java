@@ -3,11 +3,15 @@ package com.ofw.service.mapper;
 import com.ofw.model.dto.*;
 import com.ofw.model.entity.Attachment;
 import com.ofw.model.entity.Folder;
-import com.ofw.model.entity.Message;
+import com.ofw.model.entity.MessageThread;
+import com.ofw.model.entity.MessageView;
 import com.ofw.model.entity.User;
+import com.ofw.service.folder.FolderCatalog;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -61,9 +65,25 @@ public class EntityMapper {
     }
     
     /**
-     * Convert Message entity to MessageListItemDTO.
+     * Convert a catalog folder to FolderDTO.
      */
-    public MessageListItemDTO toMessageListItemDTO(Message message) {
+    public FolderDTO toFolderDTO(FolderCatalog.Entry folder, Integer unreadCount, Integer totalCount) {
+        if (folder == null) return null;
+        
+        return FolderDTO.builder()
+            .id(folder.folderId())
+            .name(folder.name())
+            .folderType(folder.folderType())
+            .folderOrder(folder.folderOrder())
+            .unreadMessageCount(unreadCount != null ? unreadCount : 0)
+            .totalMessageCount(totalCount != null ? totalCount : 0)
+            .build();
+    }
+    
+    /**
+     * Convert a message, live or archived, to MessageListItemDTO.
+     */
+    public MessageListItemDTO toMessageListItemDTO(MessageView message) {
         if (message == null) return null;
         
         return MessageListItemDTO.builder()
@@ -89,16 +109,17 @@ public class EntityMapper {
     }
     
     /**
-     * Convert Message entity to MessageDetailDTO (includes body).
+     * Convert a message, live or archived, to MessageDetailDTO (includes body).
+     * The body is stored separately and loaded by the caller.
      */
-    public MessageDetailDTO toMessageDetailDTO(Message message) {
+    public MessageDetailDTO toMessageDetailDTO(MessageView message, String body) {
         if (message == null) return null;
         
         return MessageDetailDTO.builder()
             .id(message.getMessageId())
             .folder(message.getFolder().getFolderId())
             .subject(message.getSubject())
-            .body(message.getBody())
+            .body(body)
             .preview(message.getPreview())
             .files(message.getAttachments() != null ? message.getAttachments().size() : 0)
             .read(message.getIsRead())
@@ -123,27 +144,57 @@ public class EntityMapper {
     /**
      * Convert message date to MessageDateDTO.
      */
-    private MessageDateDTO toMessageDateDTO(Message message) {
-        if (message.getMessageDate() == null) return null;
+    MessageDateDTO toMessageDateDTO(MessageView message) {
+        return toMessageDateDTO(message.getMessageDate());
+    }
+    
+    /**
+     * Convert a date to MessageDateDTO.
+     */
+    MessageDateDTO toMessageDateDTO(LocalDateTime date) {
+        if (date == null) return null;
         
         return MessageDateDTO.builder()
-            .displayDate(message.getMessageDate().format(DISPLAY_DATE_FORMATTER))
-            .displayTime(message.getMessageDate().format(DISPLAY_TIME_FORMATTER))
-            .dateTime(message.getMessageDate().format(ISO_FORMATTER))
-            .threeCharMonthWeekdayTimeNoYear(message.getMessageDate().format(THREE_CHAR_FORMATTER))
+            .displayDate(date.format(DISPLAY_DATE_FORMATTER))
+            .displayTime(date.format(DISPLAY_TIME_FORMATTER))
+            .dateTime(date.format(ISO_FORMATTER))
+            .threeCharMonthWeekdayTimeNoYear(date.format(THREE_CHAR_FORMATTER))
+            .build();
+    }
+    
+    /**
+     * Convert MessageThread entity to ThreadSummaryDTO.
+     * Participants are resolved by the caller, in one query per page.
+     */
+    public ThreadSummaryDTO toThreadSummaryDTO(MessageThread thread, List<UserDTO> participants) {
+        if (thread == null) return null;
+        
+        return ThreadSummaryDTO.builder()
+            .id(thread.getId())
+            .subject(thread.getSubject())
+            .messageCount(thread.getMessageCount())
+            .unreadCount(thread.getUnreadCount())
+            .lastMessageId(thread.getLastMessageId())
+            .firstDate(toMessageDateDTO(thread.getFirstMessageDate()))
+            .lastDate(toMessageDateDTO(thread.getLastMessageDate()))
+            .participants(participants)
             .build();
     }
     
     /**
      * Convert Attachment entity to AttachmentDTO.
      */
-    private AttachmentDTO toAttachmentDTO(Attachment attachment) {
+    public AttachmentDTO toAttachmentDTO(Attachment attachment) {
         if (attachment == null) return null;
         
         return AttachmentDTO.builder()
+            .id(attachment.getId())
             .name(attachment.getFileName())
             .size(attachment.getFileSize())
             .contentType(attachment.getContentType())
+            .url(attachment.getContentHash() != null 
+                ? "/pub/v3/attachments/" + attachment.getId() + "/content" 
+                : null)
             .build();
     }
 }
@@ -0,0 +1,90 @@
+package com.ofw.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer instrumentation for the upload/ingestion pipeline.
+ *
+ * Meters:
+ * - ofw.ingest.stage   (timer, tags: processor, stage) - parse / resolve / persist
+ * - ofw.ingest.file    (timer, tag: processor) - wall time per processed file
+ * - ofw.ingest.records (counter, tag: processor) - records created; rate() gives records/sec
+ * - ofw.upload.backlog (gauge) - upload requests accepted but not yet finished
+ */
+@Component
+public class IngestionMetrics {
+
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_RESOLVE = "resolve";
+    public static final String STAGE_PERSIST = "persist";
+
+    private final MeterRegistry registry;
+    private final AtomicInteger uploadBacklog = new AtomicInteger();
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> fileTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> recordCounters = new ConcurrentHashMap<>();
+
+    public IngestionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        Gauge.builder("ofw.upload.backlog", uploadBacklog, AtomicInteger::get)
+            .description("Upload requests accepted but not yet finished")
+            .register(registry);
+    }
+
+    /**
+     * Record time spent in one ingestion stage.
+     *
+     * @param fileType Processor file type (MESSAGES, FOLDERS, ...)
+     * @param stage One of STAGE_PARSE, STAGE_RESOLVE, STAGE_PERSIST
+     * @param nanos Elapsed time in nanoseconds
+     */
+    public void recordStage(String fileType, String stage, long nanos) {
+        stageTimers.computeIfAbsent(fileType + ':' + stage, key -> Timer.builder("ofw.ingest.stage")
+                .description("Time spent per ingestion stage")
+                .tag("processor", fileType)
+                .tag("stage", stage)
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a fully processed file and the number of records it created.
+     */
+    public void recordFile(String fileType, int recordsCreated, long nanos) {
+        fileTimers.computeIfAbsent(fileType, key -> Timer.builder("ofw.ingest.file")
+                .description("Processing time per uploaded file")
+                .tag("processor", fileType)
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+
+        recordCounters.computeIfAbsent(fileType, key -> Counter.builder("ofw.ingest.records")
+                .description("Records created by ingestion")
+                .tag("processor", fileType)
+                .register(registry))
+            .increment(recordsCreated);
+    }
+
+    /**
+     * Mark an upload request as started (increments backlog).
+     */
+    public void uploadStarted() {
+        uploadBacklog.incrementAndGet();
+    }
+
+    /**
+     * Mark an upload request as finished (decrements backlog).
+     */
+    public void uploadFinished() {
+        uploadBacklog.decrementAndGet();
+    }
+}
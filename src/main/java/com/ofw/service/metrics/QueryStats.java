@@ -0,0 +1,72 @@
+package com.ofw.service.metrics;
+
+/**
+ * SQL work done by the current thread while a request is measured.
+ *
+ * QueryStatsFilter starts a measurement for each request; Hibernate reports into it
+ * through QueryStatsSessionListener (statements and JDBC time) and a post-load listener
+ * (entities). Work done on other threads, e.g. by a SingleFlight leader for a follower,
+ * is counted where it runs.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entitiesLoaded;
+    private long jdbcNanos;
+
+    private QueryStats() {
+    }
+
+    /**
+     * Start measuring the current thread, replacing any measurement in progress.
+     */
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stop measuring the current thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static void statementExecuted(long nanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.jdbcNanos += nanos;
+        }
+    }
+
+    static void entityLoaded() {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entitiesLoaded++;
+        }
+    }
+
+    /** Statements executed; a JDBC batch counts once. */
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    /** Time spent executing statements, excluding result set reads. */
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("statements=%d, entities=%d, jdbc-ms=%.1f",
+            statements, entitiesLoaded, jdbcNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.ofw.service.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Reports executed statements and their JDBC time to QueryStats.
+ *
+ * Hibernate creates one instance per session (hibernate.session.events.auto, see
+ * QueryStatsConfig); a session is used by one thread at a time, so a plain field holds the
+ * start of the running statement.
+ */
+public class QueryStatsSessionListener extends BaseSessionEventListener {
+
+    private long startNanos;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats.statementExecuted(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStats.statementExecuted(System.nanoTime() - startNanos);
+    }
+}
@@ -1,7 +1,8 @@
 package com.ofw.service.processor;
 
-import com.ofw.model.entity.UploadSession;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.ofw.model.entity.UploadFile;
+import com.ofw.service.upload.SpooledUpload;
 
 /**
  * Strategy interface for processing different types of JSON files.
@@ -15,14 +16,37 @@ public interface FileProcessor {
     boolean canProcess(String fileName);
     
     /**
-     * Process the JSON data from the file.
+     * Process the file.
+     * 
+     * The file is spooled on disk; processors should stream it (e.g. with a Jackson
+     * JsonParser over {@link SpooledUpload#inputStream()}) so heap use does not grow
+     * with file size.
+     * 
+     * Runs outside a transaction: processors commit their records in transactions of their
+     * own, so a record that fails can be dead-lettered without rolling back the others.
      * 
      * @param fileName Name of the file
-     * @param jsonData Parsed JSON data
-     * @param session Upload session for tracking
+     * @param upload Spooled file content
+     * @param uploadFile Saved record of this file, for tracking and dead letters
      * @return Number of records created
      */
-    int process(String fileName, JsonNode jsonData, UploadSession session) throws Exception;
+    int process(String fileName, SpooledUpload upload, UploadFile uploadFile) throws Exception;
+    
+    /**
+     * Whether this processor dead-letters failing records and can replay them with
+     * {@link #replayRecord(JsonNode)}.
+     */
+    default boolean supportsReplay() {
+        return false;
+    }
+    
+    /**
+     * Process a single record again, e.g. a dead-lettered one. Runs in the caller's transaction.
+     * Only called when {@link #supportsReplay()}.
+     */
+    default void replayRecord(JsonNode record) {
+        throw new IllegalStateException(getFileType() + " records cannot be replayed");
+    }
     
     /**
      * Get the file type this processor handles.
@@ -1,12 +1,20 @@
 package com.ofw.service.processor;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ofw.model.entity.Folder;
-import com.ofw.model.entity.UploadSession;
+import com.ofw.model.entity.UploadFile;
 import com.ofw.repository.FolderRepository;
+import com.ofw.service.changelog.ChangeLogService;
+import com.ofw.service.folder.FolderCatalog;
+import com.ofw.service.metrics.IngestionMetrics;
+import com.ofw.service.upload.SpooledUpload;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
 
 /**
  * Processor for folders.json files.
@@ -17,16 +25,32 @@ import org.springframework.stereotype.Component;
 public class FoldersFileProcessor implements FileProcessor {
     
     private final FolderRepository folderRepository;
+    private final FolderCatalog folderCatalog;
+    private final ObjectMapper objectMapper;
+    private final IngestionMetrics metrics;
+    private final ChangeLogService changeLog;
     
     @Override
     public boolean canProcess(String fileName) {
         return fileName.contains("folders") && fileName.endsWith(".json");
     }
     
+    /**
+     * Folder lists are small; the whole file is one transaction.
+     */
     @Override
-    public int process(String fileName, JsonNode jsonData, UploadSession session) throws Exception {
+    @Transactional
+    public int process(String fileName, SpooledUpload upload, UploadFile uploadFile) throws Exception {
         log.info("Processing folders file: {}", fileName);
         
+        // Folder lists are small, so a tree is fine here
+        long parseStart = System.nanoTime();
+        JsonNode jsonData;
+        try (InputStream in = upload.inputStream()) {
+            jsonData = objectMapper.readTree(in);
+        }
+        metrics.recordStage(getFileType(), IngestionMetrics.STAGE_PARSE, System.nanoTime() - parseStart);
+        
         int count = 0;
         
         // Process system folders
@@ -52,10 +76,11 @@ public class FoldersFileProcessor implements FileProcessor {
     }
     
     private void processFolder(JsonNode folderNode, boolean isSystemFolder) {
+        long startNanos = System.nanoTime();
         Long folderId = folderNode.get("id").asLong();
         
-        // Skip if already exists
-        if (folderRepository.existsByFolderId(folderId)) {
+        // Skip if already exists; the repository also sees folders created in this transaction
+        if (folderCatalog.find(folderId).isPresent() || folderRepository.existsByFolderId(folderId)) {
             log.debug("Folder {} already exists, skipping", folderId);
             return;
         }
@@ -70,7 +95,12 @@ public class FoldersFileProcessor implements FileProcessor {
             .isSystemFolder(isSystemFolder)
             .build();
         
+        long resolvedNanos = System.nanoTime();
+        metrics.recordStage(getFileType(), IngestionMetrics.STAGE_RESOLVE, resolvedNanos - startNanos);
+        
         folderRepository.save(folder);
+        changeLog.record(ChangeLogService.ENTITY_FOLDER, folderId, ChangeLogService.CHANGE_CREATED);
+        metrics.recordStage(getFileType(), IngestionMetrics.STAGE_PERSIST, System.nanoTime() - resolvedNanos);
     }
     
     @Override
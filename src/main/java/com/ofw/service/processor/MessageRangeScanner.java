@@ -0,0 +1,217 @@
+package com.ofw.service.processor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Finds the elements of the top-level "data" array of a messages.json file without parsing them.
+ *
+ * The file is read once in order and only its structure is tracked: nesting depth, whether
+ * the scanner is inside a string (with escapes), and the key of each member of the root
+ * object. Every object of the data array becomes a byte range; consecutive elements are
+ * grouped into ranges of about rangeBytes, which can then be parsed independently.
+ *
+ * Only structure is checked. Malformed JSON inside an element is reported by the parser of
+ * its range.
+ */
+final class MessageRangeScanner {
+
+    private static final byte[] DATA_KEY = "data".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NOT_A_KEY = -1;
+    private static final int KEY_MISMATCH = -2;
+
+    /**
+     * Consecutive data array elements: bytes [start, start + length) of the file, element i
+     * at [starts[i], ends[i]) relative to start.
+     */
+    record Range(long start, int length, int[] starts, int[] ends) {
+
+        int size() {
+            return starts.length;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int rangeBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long bufferStart;
+    private long readPosition;
+
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private boolean expectingKey;
+    // Bytes of the current root key matching "data" so far, KEY_MISMATCH once it differs
+    private int keyMatched = NOT_A_KEY;
+    private boolean dataKey;
+    private boolean inData;
+    private boolean foundData;
+    private boolean finished;
+
+    private long elementStart;
+    private long rangeStart;
+    private int elements;
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+
+    MessageRangeScanner(FileChannel channel, int rangeBytes) {
+        this.channel = channel;
+        this.rangeBytes = rangeBytes;
+        this.buffer.flip();
+    }
+
+    /**
+     * Whether a data array was found; meaningful once {@link #next()} returned null.
+     */
+    boolean foundData() {
+        return foundData;
+    }
+
+    /**
+     * The next range of elements, or null at the end of the file.
+     */
+    Range next() throws IOException {
+        while (!finished) {
+            if (!buffer.hasRemaining() && !fill()) {
+                throw new IllegalArgumentException("Invalid messages.json format - unexpected end of file");
+            }
+            long position = bufferStart + buffer.position();
+            byte b = buffer.get();
+
+            if (inString) {
+                scanString(b);
+                continue;
+            }
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                continue;
+            }
+            if (depth == 0) {
+                if (b != '{' && !(position < 3 && isByteOrderMark(b))) {
+                    throw new IllegalArgumentException("Invalid messages.json format - expected an object");
+                }
+                if (b == '{') {
+                    depth = 1;
+                    expectingKey = true;
+                }
+                continue;
+            }
+            if (inData && depth == 2 && b != '{' && b != ',' && b != ']') {
+                throw new IllegalArgumentException("Invalid messages.json format - expected objects in 'data' array");
+            }
+
+            switch (b) {
+                case '"' -> {
+                    inString = true;
+                    if (depth == 1 && expectingKey) {
+                        keyMatched = 0;
+                    }
+                }
+                case ':' -> {
+                    if (depth == 1) {
+                        expectingKey = false;
+                    }
+                }
+                case ',' -> {
+                    if (depth == 1) {
+                        expectingKey = true;
+                        dataKey = false;
+                    }
+                }
+                case '{', '[' -> {
+                    depth++;
+                    if (depth == 2 && b == '[' && dataKey) {
+                        inData = true;
+                        foundData = true;
+                    } else if (depth == 3 && inData) {
+                        elementStart = position;
+                    }
+                }
+                case '}', ']' -> {
+                    depth--;
+                    if (depth == 2 && inData) {
+                        Range range = endElement(position + 1);
+                        if (range != null) {
+                            return range;
+                        }
+                    } else if (depth == 1 && inData) {
+                        inData = false;
+                        if (elements > 0) {
+                            return emit();
+                        }
+                    } else if (depth == 0) {
+                        finished = true;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return null;
+    }
+
+    private void scanString(byte b) {
+        if (escaped) {
+            escaped = false;
+            mismatchKey();
+        } else if (b == '\\') {
+            escaped = true;
+            mismatchKey();
+        } else if (b == '"') {
+            inString = false;
+            if (keyMatched != NOT_A_KEY) {
+                dataKey = keyMatched == DATA_KEY.length;
+                keyMatched = NOT_A_KEY;
+            }
+        } else if (keyMatched >= 0) {
+            keyMatched = keyMatched < DATA_KEY.length && b == DATA_KEY[keyMatched]
+                ? keyMatched + 1 : KEY_MISMATCH;
+        }
+    }
+
+    private void mismatchKey() {
+        if (keyMatched >= 0) {
+            keyMatched = KEY_MISMATCH;
+        }
+    }
+
+    private static boolean isByteOrderMark(byte b) {
+        return b == (byte) 0xEF || b == (byte) 0xBB || b == (byte) 0xBF;
+    }
+
+    private Range endElement(long end) {
+        if (elements == 0) {
+            rangeStart = elementStart;
+        }
+        if (elements == starts.length) {
+            starts = Arrays.copyOf(starts, elements * 2);
+            ends = Arrays.copyOf(ends, elements * 2);
+        }
+        starts[elements] = (int) (elementStart - rangeStart);
+        ends[elements] = (int) (end - rangeStart);
+        elements++;
+        return end - rangeStart >= rangeBytes ? emit() : null;
+    }
+
+    private Range emit() {
+        Range range = new Range(rangeStart, ends[elements - 1],
+            Arrays.copyOf(starts, elements), Arrays.copyOf(ends, elements));
+        elements = 0;
+        return range;
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer, readPosition);
+        buffer.flip();
+        if (read <= 0) {
+            return false;
+        }
+        bufferStart = readPosition;
+        readPosition += read;
+        return true;
+    }
+}
@@ -1,80 +1,430 @@
 package com.ofw.service.processor;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ofw.model.entity.*;
+import com.ofw.repository.ArchivedMessageRepository;
 import com.ofw.repository.FolderRepository;
 import com.ofw.repository.MessageRepository;
 import com.ofw.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.ofw.service.body.MessageBodyService;
+import com.ofw.service.changelog.ChangeLogService;
+import com.ofw.service.folder.FolderCatalog;
+import com.ofw.service.metrics.IngestionMetrics;
+import com.ofw.service.shard.ShardDirectory;
+import com.ofw.service.thread.ThreadIndexer;
+import com.ofw.service.upload.DeadLetterStore;
+import com.ofw.service.upload.SpooledUpload;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * Processor for messages.json files.
  * Implements Strategy pattern for message file processing.
+ * 
+ * The "data" array is streamed one element at a time, and every flush-every messages are
+ * committed in a transaction of their own and the persistence context is cleared, so
+ * memory use is independent of the file size and each lookup only auto-flushes a small
+ * context.
+ * 
+ * If a batch fails, including at flush or commit, it is rolled back and its messages are
+ * committed again one per transaction. Only the ones that fail on their own are kept in
+ * the dead letters, so no message is both stored and dead-lettered, and the rest of the
+ * upload is unaffected.
+ * 
+ * Folders are resolved from the FolderCatalog as references without a query; only
+ * folders the catalog doesn't know yet are read or created.
+ * 
+ * A dead-lettered message is kept with its offset in the array, and can be replayed on its
+ * own with {@link #replayRecord(JsonNode)}.
+ * 
+ * With ofw.upload.parallel-parse.enabled, files of at least
+ * ofw.upload.parallel-parse.min-bytes are parsed on several cores:
+ * {@link MessageRangeScanner} splits the data array into byte ranges of whole messages,
+ * fork-join workers parse the ranges into trees, and the upload's thread writes them in
+ * file order through the same batched writer as the streaming path. Entities are built by
+ * the writer, because resolving users and folders reads and writes through the batch's
+ * transaction. At most two ranges per worker, and no more than
+ * ofw.upload.parallel-parse.max-ahead-bytes, are parsed ahead, so memory use stays
+ * independent of the file size. The workers are started by the first such file.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class MessagesFileProcessor implements FileProcessor {
     
     private final MessageRepository messageRepository;
+    private final ArchivedMessageRepository archiveRepository;
     private final UserRepository userRepository;
     private final FolderRepository folderRepository;
+    private final FolderCatalog folderCatalog;
+    private final IngestionMetrics metrics;
+    private final ChangeLogService changeLog;
+    private final MessageBodyService messageBodyService;
+    private final ThreadIndexer threadIndexer;
+    private final DeadLetterStore deadLetters;
+    private final ShardDirectory shardDirectory;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushEvery;
+    private final int messageEventsPerFile;
+    private final boolean parallelParse;
+    private final long parallelMinBytes;
+    private final int rangeBytes;
+    private final long maxAheadBytes;
+    private final int parseThreads;
+    private ForkJoinPool parsers;
     
     private static final DateTimeFormatter ISO_FORMATTER = 
         DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
     
+    public MessagesFileProcessor(MessageRepository messageRepository,
+                                 ArchivedMessageRepository archiveRepository,
+                                 UserRepository userRepository,
+                                 FolderRepository folderRepository,
+                                 FolderCatalog folderCatalog,
+                                 IngestionMetrics metrics,
+                                 ChangeLogService changeLog,
+                                 MessageBodyService messageBodyService,
+                                 ThreadIndexer threadIndexer,
+                                 DeadLetterStore deadLetters,
+                                 ShardDirectory shardDirectory,
+                                 ObjectMapper objectMapper,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${ofw.upload.flush-every:500}") int flushEvery,
+                                 @Value("${ofw.upload.message-events-per-file:100}") int messageEventsPerFile,
+                                 @Value("${ofw.upload.parallel-parse.enabled:false}") boolean parallelParse,
+                                 @Value("${ofw.upload.parallel-parse.min-bytes:16777216}") long parallelMinBytes,
+                                 @Value("${ofw.upload.parallel-parse.range-bytes:1048576}") int rangeBytes,
+                                 @Value("${ofw.upload.parallel-parse.max-ahead-bytes:8388608}") long maxAheadBytes,
+                                 @Value("${ofw.upload.parallel-parse.threads:0}") int parseThreads) {
+        this.messageRepository = messageRepository;
+        this.archiveRepository = archiveRepository;
+        this.userRepository = userRepository;
+        this.folderRepository = folderRepository;
+        this.folderCatalog = folderCatalog;
+        this.metrics = metrics;
+        this.changeLog = changeLog;
+        this.messageBodyService = messageBodyService;
+        this.threadIndexer = threadIndexer;
+        this.deadLetters = deadLetters;
+        this.shardDirectory = shardDirectory;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushEvery = flushEvery;
+        this.messageEventsPerFile = messageEventsPerFile;
+        this.parallelParse = parallelParse;
+        this.parallelMinBytes = parallelMinBytes;
+        this.rangeBytes = rangeBytes;
+        this.maxAheadBytes = maxAheadBytes;
+        this.parseThreads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+    }
+    
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (parsers != null) {
+            parsers.shutdownNow();
+        }
+    }
+    
+    // Once per parallel-parsed file, so a plain lock is enough
+    private synchronized ForkJoinPool parsers() {
+        if (parsers == null) {
+            parsers = new ForkJoinPool(parseThreads, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("ofw-parse-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        return parsers;
+    }
+    
     @Override
     public boolean canProcess(String fileName) {
         return fileName.contains("messages") && fileName.endsWith(".json");
     }
     
     @Override
-    public int process(String fileName, JsonNode jsonData, UploadSession session) throws Exception {
+    public int process(String fileName, SpooledUpload upload, UploadFile uploadFile) throws Exception {
         log.info("Processing messages file: {}", fileName);
         
-        int count = 0;
-        JsonNode dataArray = jsonData.get("data");
+        BatchWriter writer = new BatchWriter(uploadFile);
+        boolean foundData;
+        try {
+            foundData = parallelParse && upload.size() >= parallelMinBytes
+                ? processInRanges(upload, writer)
+                : processStreaming(upload, writer);
+        } finally {
+            // Messages before malformed JSON are kept, as for a failing record
+            writer.commit();
+        }
         
-        if (dataArray == null || !dataArray.isArray()) {
+        if (!foundData) {
             throw new IllegalArgumentException("Invalid messages.json format - expected 'data' array");
         }
         
-        for (JsonNode msgNode : dataArray) {
+        log.info("Processed {} messages", writer.count);
+        return writer.count;
+    }
+    
+    private boolean processStreaming(SpooledUpload upload, BatchWriter writer) throws IOException {
+        boolean foundData = false;
+        
+        try (InputStream in = upload.inputStream();
+             JsonParser parser = objectMapper.createParser(in)) {
+            
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Invalid messages.json format - expected an object");
+            }
+            
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                
+                if (!"data".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                
+                foundData = true;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    long parseStart = System.nanoTime();
+                    JsonNode msgNode = objectMapper.readTree(parser);
+                    metrics.recordStage(getFileType(), IngestionMetrics.STAGE_PARSE, System.nanoTime() - parseStart);
+                    
+                    writer.write(msgNode);
+                }
+            }
+        }
+        return foundData;
+    }
+    
+    private boolean processInRanges(SpooledUpload upload, BatchWriter writer) throws IOException {
+        ForkJoinPool pool = parsers();
+        int parseAhead = (int) Math.max(1, Math.min(2L * pool.getParallelism(), maxAheadBytes / rangeBytes));
+        Deque<ForkJoinTask<List<JsonNode>>> parsing = new ArrayDeque<>(parseAhead);
+        
+        try (FileChannel channel = upload.channel()) {
+            MessageRangeScanner scanner = new MessageRangeScanner(channel, rangeBytes);
+            MessageRangeScanner.Range range;
+            while (parsing.size() < parseAhead && (range = scanner.next()) != null) {
+                parsing.add(parse(pool, channel, range));
+            }
+            
+            while (!parsing.isEmpty()) {
+                List<JsonNode> msgNodes = join(parsing.poll());
+                if ((range = scanner.next()) != null) {
+                    parsing.add(parse(pool, channel, range));
+                }
+                for (JsonNode msgNode : msgNodes) {
+                    writer.write(msgNode);
+                }
+            }
+            return scanner.foundData();
+        } finally {
+            // A failed file leaves nothing parsing in the background
+            parsing.forEach(task -> task.cancel(false));
+        }
+    }
+    
+    private ForkJoinTask<List<JsonNode>> parse(ForkJoinPool pool, FileChannel channel,
+                                               MessageRangeScanner.Range range) {
+        return pool.submit(() -> {
+            byte[] bytes = new byte[range.length()];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            List<JsonNode> msgNodes = new ArrayList<>(range.size());
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, range.start() + buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of file at " + (range.start() + buffer.position()));
+                    }
+                }
+                for (int i = 0; i < range.size(); i++) {
+                    long parseStart = System.nanoTime();
+                    msgNodes.add(objectMapper.readTree(bytes, range.starts()[i], range.ends()[i] - range.starts()[i]));
+                    metrics.recordStage(getFileType(), IngestionMetrics.STAGE_PARSE, System.nanoTime() - parseStart);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return msgNodes;
+        });
+    }
+    
+    private static List<JsonNode> join(ForkJoinTask<List<JsonNode>> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            // Malformed JSON fails the file as on the streaming path
+            throw e.getCause();
+        }
+    }
+    
+    @Override
+    public boolean supportsReplay() {
+        return true;
+    }
+    
+    @Override
+    public void replayRecord(JsonNode record) {
+        if (processMessage(record, new HashMap<>(), new HashMap<>(), new HashMap<>())) {
+            announce(record);
+        }
+    }
+    
+    /**
+     * Record a new message in the change log, which pushes a "message" CREATED event.
+     */
+    private void announce(JsonNode msgNode) {
+        changeLog.record(ChangeLogService.ENTITY_MESSAGE, msgNode.get("id").asLong(), ChangeLogService.CHANGE_CREATED);
+    }
+    
+    /**
+     * Persists the messages of one file in order, committing and clearing the persistence
+     * context every flush-every messages.
+     */
+    private class BatchWriter {
+        
+        private final UploadFile uploadFile;
+        // Users and folders seen in this file; references stay valid after clear(), but not
+        // after a rollback
+        private final Map<Long, User> users = new HashMap<>();
+        private final Map<Long, Folder> folders = new HashMap<>();
+        // Threads updated since the last clear(); dropped on clear() so updates aren't lost
+        private final Map<String, MessageThread> threads = new HashMap<>();
+        // Messages not committed yet, from offset batchStart in the data array
+        private final List<JsonNode> batch = new ArrayList<>();
+        private int batchStart;
+        private int count;
+        private int announced;
+        
+        BatchWriter(UploadFile uploadFile) {
+            this.uploadFile = uploadFile;
+        }
+        
+        void write(JsonNode msgNode) {
+            batch.add(msgNode);
+            if (batch.size() >= flushEvery) {
+                commit();
+            }
+        }
+        
+        /**
+         * Commit the pending messages; called once more after the last one.
+         */
+        void commit() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            int announcedBefore = announced;
+            try {
+                transactionTemplate.executeWithoutResult(status -> batch.forEach(this::persist));
+                count += batch.size();
+            } catch (RuntimeException e) {
+                log.debug("Batch at offset {} failed, committing its messages one by one: {}",
+                    batchStart, e.getMessage());
+                announced = announcedBefore;
+                forget();
+                for (int i = 0; i < batch.size(); i++) {
+                    commitAlone(batchStart + i, batch.get(i));
+                }
+            }
+            
+            entityManager.clear();
+            threads.clear();
+            batchStart += batch.size();
+            batch.clear();
+        }
+        
+        private void commitAlone(int offset, JsonNode msgNode) {
+            int announcedBefore = announced;
             try {
-                processMessage(msgNode);
+                transactionTemplate.executeWithoutResult(status -> persist(msgNode));
                 count++;
-            } catch (Exception e) {
-                log.error("Error processing message: {}", e.getMessage());
-                // Continue with next message
+            } catch (RuntimeException e) {
+                log.error("Error processing message at offset {}: {}", offset, e.getMessage());
+                announced = announcedBefore;
+                forget();
+                // Keep it for replay and continue with next message
+                deadLetters.capture(uploadFile, offset, msgNode, e);
+            }
+        }
+        
+        private void persist(JsonNode msgNode) {
+            // Large files announce only their first messages; the folder event covers the rest
+            if (processMessage(msgNode, users, folders, threads) && announced < messageEventsPerFile) {
+                announce(msgNode);
+                announced++;
             }
         }
         
-        log.info("Processed {} messages", count);
-        return count;
+        /**
+         * Drop what a rolled-back transaction may have created.
+         */
+        private void forget() {
+            users.clear();
+            folders.clear();
+            threads.clear();
+        }
     }
     
-    private void processMessage(JsonNode msgNode) {
+    /**
+     * @return Whether a message was created; false if it already existed
+     */
+    private boolean processMessage(JsonNode msgNode, Map<Long, User> users, Map<Long, Folder> folders,
+                                Map<String, MessageThread> threads) {
+        long startNanos = System.nanoTime();
         Long messageId = msgNode.get("id").asLong();
         
-        // Skip if already exists
-        if (messageRepository.existsByMessageId(messageId)) {
+        // Skip if already exists, live or archived
+        if (messageRepository.existsByMessageId(messageId) || archiveRepository.existsByMessageId(messageId)) {
             log.debug("Message {} already exists, skipping", messageId);
-            return;
+            return false;
         }
         
         // Get or create author
-        User author = getOrCreateUser(msgNode.get("author"));
+        User author = getOrCreateUser(msgNode.get("author"), users);
         
         // Get or create folder
         Long folderId = msgNode.get("folder").asLong();
-        Folder folder = folderRepository.findByFolderId(folderId)
-            .orElseGet(() -> createDefaultFolder(folderId));
+        Folder folder = folders.computeIfAbsent(folderId, this::getOrCreateFolder);
+        
+        // Get or create recipients
+        Set<User> recipients = new HashSet<>();
+        JsonNode recipientNodes = msgNode.get("recipients");
+        if (recipientNodes != null && recipientNodes.isArray()) {
+            for (JsonNode recipientNode : recipientNodes) {
+                recipients.add(getOrCreateUser(recipientNode.get("user"), users));
+            }
+        }
         
         // Parse date
         String dateTimeStr = msgNode.get("date").get("dateTime").asText();
@@ -92,25 +442,34 @@ public class MessagesFileProcessor implements FileProcessor {
             .canReply(msgNode.get("canReply").asBoolean(true))
             .author(author)
             .messageDate(messageDate)
-            .recipients(new HashSet<>())
+            .recipients(recipients)
             .build();
         
-        // Add recipients
-        JsonNode recipients = msgNode.get("recipients");
-        if (recipients != null && recipients.isArray()) {
-            for (JsonNode recipientNode : recipients) {
-                User recipient = getOrCreateUser(recipientNode.get("user"));
-                message.addRecipient(recipient);
-            }
-        }
+        threadIndexer.assign(message, threads);
+        
+        long resolvedNanos = System.nanoTime();
+        metrics.recordStage(getFileType(), IngestionMetrics.STAGE_RESOLVE, resolvedNanos - startNanos);
         
         messageRepository.save(message);
+        shardDirectory.register(messageId);
+        JsonNode bodyNode = msgNode.get("body");
+        if (bodyNode != null && !bodyNode.isNull()) {
+            messageBodyService.saveBody(message, bodyNode.asText());
+        }
+        // One entry per folder per batch; the log de-duplicates within the transaction
+        changeLog.record(ChangeLogService.ENTITY_FOLDER, folderId, ChangeLogService.CHANGE_UPDATED);
+        metrics.recordStage(getFileType(), IngestionMetrics.STAGE_PERSIST, System.nanoTime() - resolvedNanos);
+        return true;
     }
     
-    private User getOrCreateUser(JsonNode userNode) {
+    private User getOrCreateUser(JsonNode userNode, Map<Long, User> users) {
         Long userId = userNode.get("userId").asLong();
+        User cached = users.get(userId);
+        if (cached != null) {
+            return cached;
+        }
         
-        return userRepository.findByUserId(userId).orElseGet(() -> {
+        User resolved = userRepository.findByUserId(userId).orElseGet(() -> {
             User user = User.builder()
                 .userId(userId)
                 .username(userNode.get("name").asText())
@@ -122,8 +481,19 @@ public class MessagesFileProcessor implements FileProcessor {
                 .userType(userNode.get("type").asText(""))
                 .build();
             
+            changeLog.record(ChangeLogService.ENTITY_USER, userId, ChangeLogService.CHANGE_CREATED);
             return userRepository.save(user);
         });
+        users.put(userId, resolved);
+        return resolved;
+    }
+    
+    private Folder getOrCreateFolder(Long folderId) {
+        // Folders created earlier in this transaction are not in the catalog yet
+        return folderCatalog.find(folderId)
+            .map(entry -> folderRepository.getReferenceById(entry.id()))
+            .or(() -> folderRepository.findByFolderId(folderId))
+            .orElseGet(() -> createDefaultFolder(folderId));
     }
     
     private Folder createDefaultFolder(Long folderId) {
@@ -134,6 +504,7 @@ public class MessagesFileProcessor implements FileProcessor {
             .isSystemFolder(false)
             .build();
         
+        changeLog.record(ChangeLogService.ENTITY_FOLDER, folderId, ChangeLogService.CHANGE_CREATED);
         return folderRepository.save(folder);
     }
     
@@ -0,0 +1,59 @@
+package com.ofw.service.shard;
+
+/**
+ * Shard the current thread works on.
+ *
+ * ShardRoutingDataSource hands out connections to this shard, so it has to be set before a
+ * transaction starts: ShardRoutingFilter sets it for requests, UploadController for
+ * uploads, Shards.forEach for scheduled jobs. Threads without a shard use shard 0, which is
+ * also the only shard when sharding is off.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Shard of the current thread; 0 if none is set.
+     */
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    /**
+     * Switch the current thread to a shard until the scope is closed.
+     *
+     * <pre>
+     * try (ShardContext.Scope scope = ShardContext.use(shard)) { ... }
+     * </pre>
+     */
+    public static Scope use(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return new Scope(previous);
+    }
+
+    /**
+     * Restores the previous shard on close.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Integer previous;
+
+        private Scope(Integer previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
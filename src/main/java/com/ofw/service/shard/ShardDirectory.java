@@ -0,0 +1,141 @@
+package com.ofw.service.shard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Which shard holds a message, for requests that only know the message ID.
+ *
+ * The shard_directory table lives on shard 0 and is written through shard 0's pool, outside
+ * the transaction of the shard being ingested into. Message IDs registered in a transaction
+ * are written in one batch just before it commits, so a committed message always has its
+ * entry. An entry whose transaction then rolls back points at a shard without the message,
+ * which answers 404 like any unknown ID. A message ID uploaded for two families keeps the
+ * first family's shard.
+ *
+ * With a single shard there is nothing to look up: no table is created and nothing is
+ * registered.
+ *
+ * Meters:
+ * - ofw.shard_directory.lookups (counter, tag: result) - hit / miss
+ */
+@Component
+@Slf4j
+public class ShardDirectory {
+
+    static final int DIRECTORY_SHARD = 0;
+
+    private final ShardRoutingDataSource routing;
+    private final JdbcTemplate directory;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public ShardDirectory(ShardRoutingDataSource routing, MeterRegistry registry) {
+        this.routing = routing;
+        this.directory = new JdbcTemplate(routing.shard(DIRECTORY_SHARD));
+        if (routing.size() > 1) {
+            this.directory.execute("CREATE TABLE IF NOT EXISTS shard_directory ("
+                + "message_id BIGINT PRIMARY KEY, shard INT NOT NULL)");
+        }
+        this.hitCounter = counter(registry, "hit");
+        this.missCounter = counter(registry, "miss");
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("ofw.shard_directory.lookups")
+            .description("Shard directory lookups by result")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    /**
+     * Record that a message is stored on the current shard.
+     */
+    public void register(Long messageId) {
+        if (routing.size() == 1) {
+            return;
+        }
+        int shard = ShardContext.current();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(List.of(messageId), shard);
+            return;
+        }
+
+        PendingEntries pending = (PendingEntries) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEntries(shard);
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.messageIds.add(messageId);
+    }
+
+    /**
+     * Shard holding a message, if it was registered.
+     */
+    public Optional<Integer> findMessage(long messageId) {
+        List<Integer> shards = directory.queryForList(
+            "SELECT shard FROM shard_directory WHERE message_id = ?", Integer.class, messageId);
+        (shards.isEmpty() ? missCounter : hitCounter).increment();
+        return shards.stream().findFirst();
+    }
+
+    /**
+     * Shard holding an upload session. Sessions are not in the directory, so this asks
+     * every shard; it serves the dead letter admin endpoints only.
+     */
+    public Optional<Integer> findSession(String sessionId) {
+        for (int shard = 0; shard < routing.size(); shard++) {
+            Integer found = new JdbcTemplate(routing.shard(shard)).queryForObject(
+                "SELECT COUNT(*) FROM upload_sessions WHERE session_id = ?", Integer.class, sessionId);
+            if (found != null && found > 0) {
+                return Optional.of(shard);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void write(List<Long> messageIds, int shard) {
+        // Kept if already present: the first family's shard stays authoritative
+        directory.batchUpdate("INSERT IGNORE INTO shard_directory (message_id, shard) VALUES (?, ?)",
+            messageIds, 500, (statement, messageId) -> {
+                statement.setLong(1, messageId);
+                statement.setInt(2, shard);
+            });
+    }
+
+    /**
+     * Per-transaction buffer of registered message IDs.
+     */
+    private class PendingEntries implements TransactionSynchronization {
+
+        private final int shard;
+        private final Set<Long> messageIds = new LinkedHashSet<>();
+
+        PendingEntries(int shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write(new ArrayList<>(messageIds), shard);
+            log.debug("Registered {} messages on shard {}", messageIds.size(), shard);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ShardDirectory.this);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ofw.service.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSource over one pool per shard; connections come from the ShardContext's shard.
+ *
+ * The shard is picked when a connection is acquired, i.e. when a transaction (or a
+ * non-transactional repository call) starts. Switching the ShardContext inside a
+ * transaction does not move it; work for another shard needs its own transaction
+ * (REQUIRES_NEW) or the shard's pool directly. The same holds for a request's open-in-view
+ * EntityManager, which keeps its first connection until the request ends.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Sharding needs at least one shard");
+        }
+        this.shards = List.copyOf(shards);
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        // An unknown shard is a routing bug; never fall back to shard 0 for it
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Number of shards.
+     */
+    public int size() {
+        return shards.size();
+    }
+
+    /**
+     * The pool of one shard, bypassing routing and any transaction of the current thread.
+     */
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    /**
+     * Close the shard pools; called by Spring on shutdown.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ofw.service.shard;
+
+import com.ofw.model.dto.ShardStatsDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Row counts of every shard, for operators checking how families are spread.
+ *
+ * This is a cross-shard fan-out, one shard after the other. Each shard is counted through
+ * its own EntityManager: the request's open-in-view EntityManager keeps the connection it
+ * acquired first, so queries through it would all run on one shard.
+ */
+@Service
+public class ShardStatsService {
+
+    private final Shards shards;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ShardStatsService(Shards shards, EntityManagerFactory entityManagerFactory) {
+        this.shards = shards;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public List<ShardStatsDTO> getStats() {
+        return shards.fanOut(() -> {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                return ShardStatsDTO.builder()
+                    .shard(ShardContext.current())
+                    .users(count(entityManager, "User"))
+                    .folders(count(entityManager, "Folder"))
+                    .messages(count(entityManager, "Message"))
+                    .archivedMessages(count(entityManager, "ArchivedMessage"))
+                    .uploadSessions(count(entityManager, "UploadSession"))
+                    .build();
+            } finally {
+                entityManager.close();
+            }
+        });
+    }
+
+    private static long count(EntityManager entityManager, String entity) {
+        return entityManager.createQuery("SELECT COUNT(e) FROM " + entity + " e", Long.class)
+            .getSingleResult();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ofw.service.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Shard layout: which shard holds a user's data, and running work on every shard.
+ *
+ * A family's data lives on the shard of the account it was uploaded for, chosen by jump
+ * consistent hashing of the account's user ID. The hash needs no table and is stable:
+ * growing from N to N+1 shards moves only 1/(N+1) of the accounts, all of them to the
+ * new shard. Data is not moved automatically; accounts whose shard changes have to be
+ * copied over before the new shard count is deployed.
+ *
+ * Without sharding there is a single shard 0 and every method runs its work once.
+ */
+@Component
+@Slf4j
+public class Shards {
+
+    private final int count;
+
+    public Shards(Optional<ShardRoutingDataSource> routing) {
+        this.count = routing.map(ShardRoutingDataSource::size).orElse(1);
+    }
+
+    /**
+     * Number of shards; 1 when sharding is off.
+     */
+    public int count() {
+        return count;
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    /**
+     * Shard holding the data of an account.
+     */
+    public int shardFor(long userId) {
+        return jumpHash(userId, count);
+    }
+
+    /**
+     * Run a task on every shard in turn. A task failing on one shard does not stop the others.
+     */
+    public void forEach(Runnable task) {
+        for (int shard = 0; shard < count; shard++) {
+            try (ShardContext.Scope scope = ShardContext.use(shard)) {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Task failed on shard {}: {}", shard, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Run a query on every shard and collect the results by shard (cross-shard fan-out).
+     * Meant for admin queries; requests for one family go to its shard only.
+     */
+    public <T> List<T> fanOut(Supplier<T> query) {
+        List<T> results = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            try (ShardContext.Scope scope = ShardContext.use(shard)) {
+                results.add(query.get());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach): bucket in [0, buckets) for a key.
+     */
+    static int jumpHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ofw.service.sync;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Sync position: an (updatedAt, id) cursor per entity type, the last tombstone ID and
+ * the time the token was issued. Clients treat the encoded form as opaque.
+ */
+public record SyncToken(LocalDateTime messageUpdatedAt,
+                        long messageId,
+                        LocalDateTime folderUpdatedAt,
+                        long folderId,
+                        long tombstoneId,
+                        Instant issuedAt) {
+
+    private static final String VERSION = "1";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Position before any change, for an initial full sync.
+     */
+    public static SyncToken initial(Instant now) {
+        return new SyncToken(EPOCH, 0, EPOCH, 0, 0, now);
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION,
+            messageUpdatedAt.toString(), Long.toString(messageId),
+            folderUpdatedAt.toString(), Long.toString(folderId),
+            Long.toString(tombstoneId), Long.toString(issuedAt.toEpochMilli()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws SyncTokenException if the token is malformed
+     */
+    public static SyncToken decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 7 || !VERSION.equals(parts[0])) {
+                throw new SyncTokenException("Unsupported sync token", false);
+            }
+            return new SyncToken(
+                LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]),
+                LocalDateTime.parse(parts[3]), Long.parseLong(parts[4]),
+                Long.parseLong(parts[5]), Instant.ofEpochMilli(Long.parseLong(parts[6])));
+        } catch (SyncTokenException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new SyncTokenException("Malformed sync token", false);
+        }
+    }
+}
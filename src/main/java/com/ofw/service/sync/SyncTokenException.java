@@ -0,0 +1,19 @@
+package com.ofw.service.sync;
+
+/**
+ * A sync token that cannot be used: malformed (400), or older than the tombstone
+ * retention window so deletes may have been missed (410, client must resync from scratch).
+ */
+public class SyncTokenException extends RuntimeException {
+
+    private final boolean expired;
+
+    public SyncTokenException(String message, boolean expired) {
+        super(message);
+        this.expired = expired;
+    }
+
+    public boolean isExpired() {
+        return expired;
+    }
+}
@@ -0,0 +1,271 @@
+package com.ofw.service.thread;
+
+import com.ofw.model.entity.Message;
+import com.ofw.model.entity.MessageThread;
+import com.ofw.model.entity.User;
+import com.ofw.repository.MessageRepository;
+import com.ofw.repository.MessageThreadRepository;
+import com.ofw.service.shard.ShardContext;
+import com.ofw.service.shard.Shards;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the conversation thread index.
+ *
+ * A message's thread key is the SHA-256 of its normalized subject (reply/forward prefixes
+ * stripped, whitespace collapsed, lower case) and its sorted participant user IDs. It
+ * joins the most recent thread with that key whose date range is within the threading
+ * window of the message date; otherwise a new thread is started. Threads are assigned
+ * during ingestion, and a background backfill threads messages stored before the index
+ * existed.
+ *
+ * Thread counters are read-modify-write, so a thread's row is locked before it changes
+ * and stays locked until the caller's transaction commits.
+ */
+@Component
+@Slf4j
+public class ThreadIndexer {
+
+    /** Any run of "Re:", "Fwd:", "RE[2]:", "AW:" ... prefixes. */
+    private static final Pattern REPLY_PREFIXES =
+        Pattern.compile("^(\\s*(re|fw|fwd|aw|sv|wg)(\\[\\d+])?\\s*:\\s*)+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MessageThreadRepository threadRepository;
+    private final MessageRepository messageRepository;
+    private final EntityManager entityManager;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration window;
+    private final int backfillBatchSize;
+
+    /** Shards found with nothing left to backfill. */
+    private final Set<Integer> backfillComplete = ConcurrentHashMap.newKeySet();
+
+    public ThreadIndexer(MessageThreadRepository threadRepository,
+                         MessageRepository messageRepository,
+                         EntityManager entityManager,
+                         Shards shards,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${ofw.threads.window-days:30}") long windowDays,
+                         @Value("${ofw.threads.backfill.batch-size:200}") int backfillBatchSize) {
+        this.threadRepository = threadRepository;
+        this.messageRepository = messageRepository;
+        this.entityManager = entityManager;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.window = Duration.ofDays(windowDays);
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    /**
+     * Assign a message to its thread and update the thread summary.
+     * Must run inside the transaction that saves the message.
+     *
+     * @param message Message with subject, author, recipients and date set
+     * @param recent Threads touched in this unit of work, by key; the caller clears it
+     *               whenever it clears the persistence context
+     */
+    public void assign(Message message, Map<String, MessageThread> recent) {
+        String participants = participantIds(message);
+        String key = threadKey(message.getSubject(), participants);
+        LocalDateTime date = message.getMessageDate();
+
+        MessageThread thread = recent.get(key);
+        if (thread == null || !withinWindow(thread, date)) {
+            thread = threadRepository.findCandidates(key, date.minus(window), date.plus(window), PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
+                .orElse(null);
+        }
+        if (thread == null) {
+            thread = threadRepository.save(MessageThread.builder()
+                .threadKey(key)
+                .subject(normalizeSubject(message.getSubject()))
+                .participantIds(participants)
+                .firstMessageDate(date)
+                .lastMessageDate(date)
+                .lastMessageId(message.getMessageId())
+                .build());
+        }
+
+        thread.setMessageCount(thread.getMessageCount() + 1);
+        if (!Boolean.TRUE.equals(message.getIsRead())) {
+            thread.setUnreadCount(thread.getUnreadCount() + 1);
+        }
+        if (date.isBefore(thread.getFirstMessageDate())) {
+            thread.setFirstMessageDate(date);
+        }
+        if (!date.isBefore(thread.getLastMessageDate())) {
+            thread.setLastMessageDate(date);
+            thread.setLastMessageId(message.getMessageId());
+        }
+
+        message.setThread(thread);
+        recent.put(key, thread);
+    }
+
+    /**
+     * Keep the thread's unread count in step with a read-state change.
+     */
+    public void onReadChanged(Message message, boolean wasRead) {
+        MessageThread thread = message.getThread();
+        boolean isRead = Boolean.TRUE.equals(message.getIsRead());
+        if (thread == null || wasRead == isRead) {
+            return;
+        }
+        lock(thread);
+        thread.setUnreadCount(Math.max(0, thread.getUnreadCount() + (isRead ? -1 : 1)));
+    }
+
+    /**
+     * Remove a deleted message from its thread's counts. Call after deleting the message.
+     * The thread is deleted with its last message; its date range is not shrunk.
+     */
+    public void onDeleted(Message message) {
+        MessageThread thread = message.getThread();
+        if (thread == null) {
+            return;
+        }
+        lock(thread);
+        thread.setMessageCount(Math.max(0, thread.getMessageCount() - 1));
+        if (!Boolean.TRUE.equals(message.getIsRead())) {
+            thread.setUnreadCount(Math.max(0, thread.getUnreadCount() - 1));
+        }
+        if (thread.getMessageCount() == 0) {
+            threadRepository.delete(thread);
+        }
+    }
+
+    /**
+     * Reload a thread with its row locked, so its counters are current.
+     */
+    private void lock(MessageThread thread) {
+        entityManager.refresh(thread, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * Thread messages stored before the index existed, in keyset-ordered batches.
+     * Runs on every replica: each batch is claimed with SKIP LOCKED, so replicas thread
+     * disjoint rows.
+     */
+    @Scheduled(initialDelayString = "${ofw.threads.backfill.initial-delay-ms:30000}",
+               fixedDelayString = "${ofw.threads.backfill.interval-ms:300000}")
+    public void backfill() {
+        if (backfillComplete.size() < shards.count()) {
+            shards.forEach(this::backfillShard);
+        }
+    }
+
+    private void backfillShard() {
+        if (backfillComplete.contains(ShardContext.current())) {
+            return;
+        }
+
+        long afterId = 0;
+        int batches = 0;
+        try {
+            while (true) {
+                long from = afterId;
+                Long lastId = transactionTemplate.execute(status -> backfillBatch(from));
+                if (lastId == null) {
+                    break;
+                }
+                batches++;
+                afterId = lastId;
+            }
+        } catch (Exception e) {
+            log.warn("Thread backfill failed after message id {}: {}", afterId, e.getMessage());
+            return;
+        }
+
+        if (batches == 0) {
+            log.info("No unthreaded messages left to backfill");
+            backfillComplete.add(ShardContext.current());
+        } else {
+            log.info("Thread backfill processed {} batches", batches);
+        }
+    }
+
+    private Long backfillBatch(long afterId) {
+        List<Message> messages = messageRepository.claimUnthreadedAfter(afterId, backfillBatchSize);
+        if (messages.isEmpty()) {
+            return null;
+        }
+        Map<String, MessageThread> recent = new HashMap<>();
+        Map<MessageThread, List<Long>> members = new IdentityHashMap<>();
+        for (Message message : messages) {
+            assign(message, recent);
+            members.computeIfAbsent(message.getThread(), thread -> new ArrayList<>()).add(message.getId());
+            // Threaded below without touching updated_at; a dirty entity would bump it
+            entityManager.detach(message);
+        }
+        entityManager.flush();
+        members.forEach((thread, ids) -> messageRepository.assignThread(ids, thread.getId()));
+        entityManager.clear();
+        return messages.get(messages.size() - 1).getId();
+    }
+
+    private boolean withinWindow(MessageThread thread, LocalDateTime date) {
+        return !date.isBefore(thread.getFirstMessageDate().minus(window))
+            && !date.isAfter(thread.getLastMessageDate().plus(window));
+    }
+
+    /**
+     * Strip reply/forward prefixes and collapse whitespace.
+     */
+    public static String normalizeSubject(String subject) {
+        if (subject == null) {
+            return "";
+        }
+        String stripped = REPLY_PREFIXES.matcher(subject).replaceFirst("");
+        return WHITESPACE.matcher(stripped).replaceAll(" ").trim();
+    }
+
+    static String participantIds(Message message) {
+        TreeSet<Long> ids = new TreeSet<>();
+        if (message.getAuthor() != null) {
+            ids.add(message.getAuthor().getUserId());
+        }
+        for (User recipient : message.getRecipients()) {
+            ids.add(recipient.getUserId());
+        }
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    static String threadKey(String subject, String participantIds) {
+        String material = normalizeSubject(subject).toLowerCase(Locale.ROOT) + '\n' + participantIds;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.ofw.service.upload;
+
+import com.ofw.model.dto.DeadLetterDTO;
+import com.ofw.model.dto.DeadLetterReplayDTO;
+import com.ofw.model.entity.UploadDeadLetter;
+import com.ofw.model.entity.UploadSession;
+import com.ofw.repository.UploadDeadLetterRepository;
+import com.ofw.repository.UploadSessionRepository;
+import com.ofw.service.processor.FileProcessor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lists and replays the dead letters of an upload session.
+ *
+ * Each record is replayed in its own transaction through the processor of its file type,
+ * so one record that still fails doesn't roll back the others. A record that succeeds is
+ * deleted and counted into its file's records_created; one that fails keeps its row with
+ * the new error and attempt count. Replaying a record whose message already exists is a
+ * no-op success, so replaying twice is safe.
+ */
+@Service
+@Lazy
+@Slf4j
+public class DeadLetterService {
+
+    private final UploadDeadLetterRepository repository;
+    private final UploadSessionRepository sessionRepository;
+    private final DeadLetterStore store;
+    private final List<FileProcessor> fileProcessors;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final Counter replayedCounter;
+    private final Counter failedCounter;
+
+    public DeadLetterService(UploadDeadLetterRepository repository,
+                             UploadSessionRepository sessionRepository,
+                             DeadLetterStore store,
+                             List<FileProcessor> fileProcessors,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry registry) {
+        this.repository = repository;
+        this.sessionRepository = sessionRepository;
+        this.store = store;
+        this.fileProcessors = fileProcessors;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.replayedCounter = DeadLetterStore.counter(registry, "replayed");
+        this.failedCounter = DeadLetterStore.counter(registry, "failed");
+    }
+
+    /**
+     * Dead letters of a session, with their records.
+     *
+     * @throws IllegalArgumentException if the session does not exist
+     */
+    public List<DeadLetterDTO> getDeadLetters(String sessionId) {
+        return readOnlyTemplate.execute(status -> repository.findBySession(findSession(sessionId).getId())
+            .stream()
+            .map(deadLetter -> toDTO(deadLetter, true))
+            .toList());
+    }
+
+    /**
+     * Replay every dead letter of a session.
+     *
+     * @throws IllegalArgumentException if the session does not exist
+     */
+    public DeadLetterReplayDTO replay(String sessionId) {
+        List<DeadLetterDTO> pending = readOnlyTemplate.execute(status ->
+            repository.findBySession(findSession(sessionId).getId()).stream()
+                .map(deadLetter -> toDTO(deadLetter, false))
+                .toList());
+
+        int replayed = 0;
+        List<String> errorMessages = new ArrayList<>();
+        for (DeadLetterDTO deadLetter : pending) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> replayOne(deadLetter.getId()));
+                replayed++;
+                replayedCounter.increment();
+            } catch (RuntimeException e) {
+                // The replay transaction is rolled back; record the attempt in a new one
+                String error = DeadLetterStore.describe(e);
+                transactionTemplate.executeWithoutResult(status -> recordFailure(deadLetter.getId(), error));
+                errorMessages.add(String.format("Record %d of %s: %s",
+                    deadLetter.getRecordOffset(), deadLetter.getFileName(), error));
+                failedCounter.increment();
+            }
+        }
+
+        log.info("Replayed {} of {} dead letters of session {}", replayed, pending.size(), sessionId);
+        return DeadLetterReplayDTO.builder()
+            .sessionId(sessionId)
+            .replayed(replayed)
+            .failed(errorMessages.size())
+            .errorMessages(errorMessages)
+            .build();
+    }
+
+    private void replayOne(Long id) {
+        UploadDeadLetter deadLetter = repository.findById(id).orElse(null);
+        if (deadLetter == null) {
+            // Replayed concurrently
+            return;
+        }
+
+        String fileType = deadLetter.getUploadFile().getFileType();
+        FileProcessor processor = fileProcessors.stream()
+            .filter(candidate -> candidate.getFileType().equals(fileType))
+            .filter(FileProcessor::supportsReplay)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No processor replays " + fileType + " records"));
+
+        processor.replayRecord(store.read(deadLetter));
+
+        deadLetter.getUploadFile().deadLetterReplayed();
+        repository.delete(deadLetter);
+    }
+
+    private void recordFailure(Long id, String error) {
+        repository.findById(id).ifPresent(deadLetter -> {
+            deadLetter.setAttempts(deadLetter.getAttempts() + 1);
+            deadLetter.setErrorMessage(error);
+            deadLetter.setLastAttemptAt(LocalDateTime.now());
+        });
+    }
+
+    private UploadSession findSession(String sessionId) {
+        return sessionRepository.findBySessionId(sessionId)
+            .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionId));
+    }
+
+    private DeadLetterDTO toDTO(UploadDeadLetter deadLetter, boolean withRecord) {
+        return DeadLetterDTO.builder()
+            .id(deadLetter.getId())
+            .fileName(deadLetter.getUploadFile().getFileName())
+            .recordOffset(deadLetter.getRecordOffset())
+            .errorMessage(deadLetter.getErrorMessage())
+            .attempts(deadLetter.getAttempts())
+            .createdAt(deadLetter.getCreatedAt())
+            .lastAttemptAt(deadLetter.getLastAttemptAt())
+            .record(withRecord ? store.read(deadLetter) : null)
+            .build();
+    }
+}
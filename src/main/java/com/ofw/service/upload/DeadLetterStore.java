@@ -0,0 +1,106 @@
+package com.ofw.service.upload;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ofw.model.entity.UploadDeadLetter;
+import com.ofw.model.entity.UploadFile;
+import com.ofw.repository.UploadDeadLetterRepository;
+import com.ofw.service.body.MessageBodyCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps records that failed during ingestion in upload_dead_letters.
+ *
+ * Capture commits in a transaction of its own, so a dead letter is kept whatever happens
+ * to the transaction the record failed in. Records are stored as Deflate-compressed JSON;
+ * only the failing records are kept, never the file.
+ *
+ * Meters:
+ * - ofw.upload.dead_letters (counter, tag: outcome) - records captured / replayed / failed again
+ */
+@Component
+@Slf4j
+public class DeadLetterStore {
+
+    static final int MAX_ERROR_LENGTH = 1000;
+
+    private final UploadDeadLetterRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Counter capturedCounter;
+
+    public DeadLetterStore(UploadDeadLetterRepository repository,
+                           ObjectMapper objectMapper,
+                           MeterRegistry registry) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.capturedCounter = counter(registry, "captured");
+    }
+
+    static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("ofw.upload.dead_letters")
+            .description("Failed upload records by outcome")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * Store a record that failed to process.
+     *
+     * @param uploadFile File the record came from; must already be committed
+     * @param offset Index of the record in the file's data array
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void capture(UploadFile uploadFile, int offset, JsonNode record, Exception error) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        repository.save(UploadDeadLetter.builder()
+            .uploadFile(uploadFile)
+            .recordOffset(offset)
+            .errorMessage(describe(error))
+            .originalLength(json.length)
+            .payload(MessageBodyCodec.deflate(json))
+            .lastAttemptAt(LocalDateTime.now())
+            .build());
+
+        uploadFile.incrementDeadLetters();
+        capturedCounter.increment();
+        log.debug("Dead-lettered record {} of {}", offset, uploadFile.getFileName());
+    }
+
+    /**
+     * Decode the stored record.
+     *
+     * @throws IllegalStateException if the payload is corrupt
+     */
+    public JsonNode read(UploadDeadLetter deadLetter) {
+        byte[] json = MessageBodyCodec.inflate(deadLetter.getPayload(), deadLetter.getOriginalLength());
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt dead letter " + deadLetter.getId(), e);
+        }
+    }
+
+    /**
+     * Error text as stored in error_message, truncated to fit.
+     */
+    static String describe(Exception error) {
+        String message = error.getClass().getSimpleName()
+            + (error.getMessage() != null ? ": " + error.getMessage() : "");
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
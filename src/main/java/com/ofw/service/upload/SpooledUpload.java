@@ -0,0 +1,127 @@
+package com.ofw.service.upload;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * An uploaded file spooled to local disk.
+ *
+ * Multipart parts are written to UPLOAD_TEMP_DIR by the container (file-size-threshold 0)
+ * and moved into place with a rename, so the upload is never copied through the heap.
+ * Processors read it through a buffered channel view; only the buffer is on the heap.
+ *
+ * Closing a spooled upload deletes its file. Views opened with {@link #open(Path)} do
+ * not own the file and leave it in place.
+ */
+public final class SpooledUpload implements AutoCloseable {
+
+    /** Prefix of spool files, used to sweep leftovers after a crash. */
+    public static final String FILE_PREFIX = "ofw-upload-";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String fileName;
+    private final Path path;
+    private final boolean owned;
+
+    private SpooledUpload(String fileName, Path path, boolean owned) {
+        this.fileName = fileName;
+        this.path = path;
+        this.owned = owned;
+    }
+
+    /**
+     * Move a multipart file into the spool directory.
+     *
+     * For parts the container already stored on disk in the same directory this is a
+     * rename; other parts are streamed to disk once.
+     */
+    public static SpooledUpload spool(MultipartFile file, Path spoolDir) throws IOException {
+        Files.createDirectories(spoolDir);
+        Path target = Files.createTempFile(spoolDir, FILE_PREFIX, ".part");
+        try {
+            file.transferTo(target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return new SpooledUpload(file.getOriginalFilename(), target, true);
+    }
+
+    /**
+     * Read-only view of an existing file that is not deleted on close.
+     */
+    public static SpooledUpload open(Path path) {
+        return new SpooledUpload(path.getFileName().toString(), path, false);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long size() throws IOException {
+        return Files.size(path);
+    }
+
+    /**
+     * Open a new read channel positioned at the start of the file. Caller closes it.
+     */
+    public FileChannel channel() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Open a buffered stream over a new channel. Caller closes it.
+     */
+    public InputStream inputStream() throws IOException {
+        return new BufferedInputStream(Channels.newInputStream(channel()), BUFFER_SIZE);
+    }
+
+    /**
+     * Hex SHA-256 of the content, read in one pass through a direct buffer.
+     */
+    public String sha256() throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = channel()) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Delete the spool file (no-op for views that don't own their file).
+     */
+    @Override
+    public void close() throws IOException {
+        if (owned) {
+            Files.deleteIfExists(path);
+        }
+    }
+}
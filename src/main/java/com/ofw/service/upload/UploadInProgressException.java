@@ -0,0 +1,11 @@
+package com.ofw.service.upload;
+
+/**
+ * Thrown when an upload reuses the Idempotency-Key of an upload that has not finished yet (409).
+ */
+public class UploadInProgressException extends RuntimeException {
+
+    public UploadInProgressException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,136 @@
+package com.ofw.service.upload;
+
+import com.ofw.repository.UploadDeadLetterRepository;
+import com.ofw.repository.UploadFileRepository;
+import com.ofw.repository.UploadSessionRepository;
+import com.ofw.service.shard.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes upload sessions older than ofw.upload.retention.days, with their files.
+ *
+ * Sessions are walked in primary key order (keyset pagination, never OFFSET) in small
+ * batches, each in its own short transaction that deletes the batch's dead letters and
+ * upload_files rows and then the sessions. A pause between batches keeps lock time and replication lag down.
+ * Deleting is idempotent, so every replica may run the job.
+ *
+ * Once its file records are gone, re-uploading an old file is processed again instead of
+ * being skipped by content hash; ingestion still skips messages that already exist.
+ *
+ * Meters:
+ * - ofw.upload.retention.deleted (counter, tag: table) - rows deleted from upload_sessions / upload_files
+ */
+@Component
+@Slf4j
+public class UploadRetention {
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadFileRepository fileRepository;
+    private final UploadDeadLetterRepository deadLetterRepository;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter sessionsDeleted;
+    private final Counter filesDeleted;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    public UploadRetention(UploadSessionRepository sessionRepository,
+                           UploadFileRepository fileRepository,
+                           UploadDeadLetterRepository deadLetterRepository,
+                           Shards shards,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry registry,
+                           @Value("${ofw.upload.retention.enabled:true}") boolean enabled,
+                           @Value("${ofw.upload.retention.days:90}") int retentionDays,
+                           @Value("${ofw.upload.retention.batch-size:200}") int batchSize,
+                           @Value("${ofw.upload.retention.pause-ms:100}") long pauseMillis) {
+        this.sessionRepository = sessionRepository;
+        this.fileRepository = fileRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+
+        this.sessionsDeleted = Counter.builder("ofw.upload.retention.deleted")
+            .description("Expired upload rows deleted by the retention job")
+            .tag("table", "upload_sessions")
+            .register(registry);
+        this.filesDeleted = Counter.builder("ofw.upload.retention.deleted")
+            .description("Expired upload rows deleted by the retention job")
+            .tag("table", "upload_files")
+            .register(registry);
+    }
+
+    /**
+     * Delete all expired sessions, batch by batch.
+     */
+    @Scheduled(initialDelayString = "${ofw.upload.retention.initial-delay-ms:120000}",
+               fixedDelayString = "${ofw.upload.retention.interval-ms:3600000}")
+    public void purge() {
+        if (enabled) {
+            shards.forEach(this::purgeShard);
+        }
+    }
+
+    private void purgeShard() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long afterId = 0;
+        long sessions = 0;
+        long files = 0;
+        try {
+            while (true) {
+                long from = afterId;
+                BatchResult batch = transactionTemplate.execute(status -> purgeBatch(from, cutoff));
+                if (batch == null || batch.sessions() == 0) {
+                    break;
+                }
+                afterId = batch.lastId();
+                sessions += batch.sessions();
+                files += batch.files();
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Upload retention failed after session id {}: {}", afterId, e.getMessage());
+        }
+
+        if (sessions > 0) {
+            log.info("Deleted {} upload sessions and {} upload files created before {}", sessions, files, cutoff);
+        }
+    }
+
+    private BatchResult purgeBatch(long afterId, LocalDateTime cutoff) {
+        List<Long> ids = sessionRepository.findExpiredIds(afterId, cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return new BatchResult(0, 0, afterId);
+        }
+
+        deadLetterRepository.deleteBySessionIds(ids);
+        int files = fileRepository.deleteBySessionIds(ids);
+        int sessions = sessionRepository.deleteByIds(ids);
+
+        filesDeleted.increment(files);
+        sessionsDeleted.increment(sessions);
+        return new BatchResult(ids.size(), files, ids.get(ids.size() - 1));
+    }
+
+    private record BatchResult(int sessions, int files, long lastId) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.ofw.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query budgets per endpoint.
+ *
+ * Seeds an embedded H2 server with the message page cache and request coalescing off, so
+ * every call reaches the database, then calls each endpoint below at page sizes 5, 25 and
+ * 100 and compares the statements it executed (X-Query-Stats) with its budget. A list
+ * endpoint whose count grows with the page size (an N+1) fails at the larger sizes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:ofw_budget;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "ofw.query-stats.header=true",
+    "ofw.message-cache.enabled=false",
+    "ofw.single-flight.enabled=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    private static final Pattern STATEMENTS = Pattern.compile("statements=(\\d+)");
+    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final List<Integer> PAGE_SIZES = List.of(5, 25, 100);
+
+    private static final int MESSAGES = 300;
+    private static final int USERS = 40;
+    private static final long FIRST_MESSAGE_ID = 1_000_000L;
+    private static final long FIRST_USER_ID = 1_001_100L;
+    private static final long[] FOLDER_IDS = {1, 2, 3, 4, 100, 101};
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    static Stream<Arguments> budgets() {
+        return Stream.of(
+            listBudget("/pub/v3/messages?folder=1&size={size}", 6),
+            listBudget("/pub/v3/messages?size={size}", 7),
+            // A short page also counts the hot rows and reads the archive
+            listBudget("/pub/v3/users/" + FIRST_USER_ID + "/messages?size={size}", 10),
+            listBudget("/pub/v3/threads?size={size}", 3),
+            listBudget("/pub/v3/sync?limit={size}", 6),
+            Stream.of(Arguments.of("/pub/v3/messages/" + (FIRST_MESSAGE_ID + 1), 6)),
+            Stream.of(Arguments.of("/pub/v1/messageFolders", 0))
+        ).flatMap(budget -> budget);
+    }
+
+    private static Stream<Arguments> listBudget(String path, int maxStatements) {
+        return PAGE_SIZES.stream()
+            .map(size -> Arguments.of(path.replace("{size}", String.valueOf(size)), maxStatements));
+    }
+
+    @BeforeAll
+    void seed() {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("files", file("folders.json", foldersJson()));
+        body.add("files", file("messages.json", messagesJson()));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        ResponseEntity<String> response = rest.postForEntity("/api/v1/upload/debug",
+            new HttpEntity<>(body, headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @ParameterizedTest(name = "{0} within {1} statements")
+    @MethodSource("budgets")
+    void staysWithinBudget(String path, int maxStatements) {
+        ResponseEntity<String> response = rest.getForEntity(path, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String stats = response.getHeaders().getFirst(QueryStatsFilter.HEADER);
+        assertThat(stats).isNotNull();
+        Matcher matcher = STATEMENTS.matcher(stats);
+        assertThat(matcher.find()).isTrue();
+        assertThat(Integer.parseInt(matcher.group(1))).as("statements of %s", path)
+            .isLessThanOrEqualTo(maxStatements);
+    }
+
+    private static ByteArrayResource file(String name, byte[] content) {
+        return new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        };
+    }
+
+    private byte[] foldersJson() {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode system = root.putArray("systemFolders");
+        String[][] systemFolders = {{"Inbox", "INBOX"}, {"Action Items", "ACTION_ITEMS"},
+            {"Notifications", "SYSTEM_MESSAGES"}, {"Sent", "SENT"}};
+        for (int i = 0; i < systemFolders.length; i++) {
+            system.addObject()
+                .put("id", i + 1)
+                .put("name", systemFolders[i][0])
+                .put("folderType", systemFolders[i][1])
+                .put("folderOrder", i + 1);
+        }
+        ArrayNode user = root.putArray("userFolders");
+        for (int i = 0; i < 2; i++) {
+            user.addObject()
+                .put("id", 100 + i)
+                .put("name", "Folder " + (i + 1))
+                .put("folderType", "USER")
+                .put("folderOrder", 10 + i);
+        }
+        return toBytes(root);
+    }
+
+    private byte[] messagesJson() {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode data = root.putArray("data");
+        LocalDateTime date = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < MESSAGES; i++) {
+            String subject = (i % 3 == 0 ? "Re: " : "") + "Schedule " + (i % 20);
+            ObjectNode message = data.addObject()
+                .put("id", FIRST_MESSAGE_ID + i)
+                // Half of the messages in the Inbox, so its pages are full at every size
+                .put("folder", i % 2 == 0 ? 1 : FOLDER_IDS[i % FOLDER_IDS.length])
+                .put("subject", subject)
+                .put("preview", "Following up on " + subject)
+                .put("body", "Following up on " + subject + ". Please confirm.")
+                .put("files", 0)
+                .put("read", i % 4 == 0)
+                .put("replied", false)
+                .put("draft", false)
+                .put("canReply", true);
+            message.set("author", user(FIRST_USER_ID + i % USERS));
+            message.putObject("date").put("dateTime", date.minusHours(i).format(ISO_FORMATTER));
+            ArrayNode recipients = message.putArray("recipients");
+            for (int r = 1; r <= 1 + i % 3; r++) {
+                recipients.addObject().set("user", user(FIRST_USER_ID + (i + r) % USERS));
+            }
+        }
+        return toBytes(root);
+    }
+
+    private ObjectNode user(long userId) {
+        return objectMapper.createObjectNode()
+            .put("userId", userId)
+            .put("name", "User " + userId)
+            .put("firstName", "User")
+            .put("lastName", String.valueOf(userId))
+            .put("displayInitials", "U")
+            .put("active", true)
+            .put("type", "PARENT")
+            .put("color", "#33C4FF");
+    }
+
+    private byte[] toBytes(ObjectNode root) {
+        try {
+            return objectMapper.writeValueAsBytes(root);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to build fixture", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ofw.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ofw.service.shard.ShardDirectory;
+import com.ofw.service.shard.Shards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShardRoutingFilterTest {
+
+    private static final long UPLOADER = 1_011_010L;
+    private static final long FAMILY_MEMBER = 1_011_011L;
+
+    private Shards shards;
+    private ShardDirectory directory;
+    private ShardRoutingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        shards = mock(Shards.class);
+        directory = mock(ShardDirectory.class);
+        when(shards.isSharded()).thenReturn(true);
+        when(shards.shardFor(UPLOADER)).thenReturn(2);
+        when(shards.shardFor(FAMILY_MEMBER)).thenReturn(1);
+        filter = new ShardRoutingFilter(shards, directory, new ObjectMapper().findAndRegisterModules());
+    }
+
+    private static MockHttpServletRequest request(String path, Long account) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        if (account != null) {
+            request.addHeader(ShardRoutingFilter.USER_HEADER, String.valueOf(account));
+        }
+        return request;
+    }
+
+    @Test
+    void headerRoutesToTheAccountsShard() {
+        assertThat(filter.resolve(request("/pub/v3/messages", UPLOADER))).contains(2);
+    }
+
+    @Test
+    void headerWinsOverAUserPath() {
+        // A family member's messages live on the uploader's shard, not on the member's own
+        assertThat(filter.resolve(request("/pub/v3/users/" + FAMILY_MEMBER + "/messages", UPLOADER)))
+            .contains(2);
+    }
+
+    @Test
+    void userPathWithoutAHeaderIsNotRouted() {
+        // The member's own shard would answer with an empty list
+        assertThat(filter.resolve(request("/pub/v3/users/" + FAMILY_MEMBER + "/messages", null))).isEmpty();
+    }
+
+    @Test
+    void headerSkipsTheDirectoryLookup() {
+        assertThat(filter.resolve(request("/pub/v3/messages/42", UPLOADER))).contains(2);
+        verify(directory, never()).findMessage(anyLong());
+    }
+
+    @Test
+    void messagePathWithoutAHeaderUsesTheDirectory() {
+        when(directory.findMessage(42L)).thenReturn(Optional.of(3));
+
+        assertThat(filter.resolve(request("/pub/v3/messages/42/read", null))).contains(3);
+    }
+
+    @Test
+    void unknownMessageWithoutAHeaderGoesToShardZero() {
+        when(directory.findMessage(42L)).thenReturn(Optional.empty());
+
+        assertThat(filter.resolve(request("/pub/v3/messages/42", null))).contains(0);
+    }
+
+    @Test
+    void sessionPathUsesTheShardHoldingTheSession() {
+        when(directory.findSession("abc")).thenReturn(Optional.of(1));
+
+        assertThat(filter.resolve(request("/api/v1/upload/sessions/abc/dead-letters", UPLOADER))).contains(1);
+    }
+
+    @Test
+    void otherRequestsWithoutAHeaderAreNotRouted() {
+        assertThat(filter.resolve(request("/pub/v1/messageFolders", null))).isEmpty();
+    }
+
+    @Test
+    void malformedHeaderIsRejected() throws Exception {
+        MockHttpServletRequest request = request("/pub/v3/messages", null);
+        request.addHeader(ShardRoutingFilter.USER_HEADER, "abc");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void nothingIsRoutedWithASingleShard() throws Exception {
+        when(shards.isSharded()).thenReturn(false);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/pub/v1/messageFolders", null), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+}
@@ -0,0 +1,144 @@
+package com.ofw.service;
+
+import com.ofw.model.dto.MessagesResponseDTO;
+import com.ofw.service.archive.MessageArchiver;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lists between two users, once part of them has been archived.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.url=jdbc:h2:mem:ofw_messages;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "ofw.message-cache.enabled=false",
+    "ofw.archive.enabled=true",
+    "ofw.archive.after-days=10",
+    "ofw.archive.batch-size=7",
+    "ofw.archive.pause-ms=0",
+    "ofw.archive.initial-delay-ms=3600000"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MessageServiceTest {
+
+    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final long USER = 7_000_001L;
+    private static final long OTHER = 7_000_002L;
+    private static final long THIRD = 7_000_003L;
+    private static final long FIRST_MESSAGE_ID = 6_000_000L;
+    private static final int MESSAGES = 30;
+
+    @Autowired
+    private UploadService uploadService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageArchiver messageArchiver;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    /** Message ids of each list, newest first. */
+    private final List<Long> between = new ArrayList<>();
+    private final List<Long> toSelf = new ArrayList<>();
+
+    @BeforeAll
+    void seed() throws Exception {
+        // One message a day: user to other, other to user, user to a third user, user to self
+        LocalDateTime date = LocalDateTime.now().withNano(0);
+        StringJoiner data = new StringJoiner(",", "{\"data\": [", "]}");
+        for (int i = 0; i < MESSAGES; i++) {
+            long id = FIRST_MESSAGE_ID + i;
+            long author = i % 4 == 1 ? OTHER : USER;
+            long recipient = switch (i % 4) {
+                case 0 -> OTHER;
+                case 1 -> USER;
+                case 2 -> THIRD;
+                default -> USER;
+            };
+            data.add(message(id, author, recipient, date.minusDays(i)));
+            if (i % 4 < 2) {
+                between.add(id);
+            } else if (i % 4 == 3) {
+                toSelf.add(id);
+            }
+        }
+        uploadService.uploadDebugData(new MultipartFile[] {
+            json("folders.json", "{\"systemFolders\": [{\"id\": 1, \"name\": \"Inbox\", \"folderType\": \"INBOX\","
+                + " \"folderOrder\": 1}], \"userFolders\": []}"),
+            json("messages.json", data.toString())
+        }, null, null, null);
+
+        // Bodies are migrated before a message can be archived
+        jdbc.update("UPDATE messages SET body = NULL");
+        messageArchiver.archive();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM messages_archive", Integer.class)).isPositive();
+        // Restored by a write: an old message back among the hot rows
+        messageService.markAsRead(FIRST_MESSAGE_ID + 25);
+    }
+
+    @Test
+    void betweenListContinuesIntoTheArchive() {
+        assertPages(size -> page -> messageService.getMessagesBetween(USER, OTHER, page, size), between);
+        assertPages(size -> page -> messageService.getMessagesBetween(OTHER, USER, page, size), between);
+    }
+
+    @Test
+    void sentToSelfListContinuesIntoTheArchive() {
+        assertPages(size -> page -> messageService.getMessagesBetween(USER, USER, page, size), toSelf);
+    }
+
+    private static void assertPages(IntFunction<IntFunction<MessagesResponseDTO>> list, List<Long> expected) {
+        for (int size : new int[] {3, 4, 10, 50}) {
+            List<Long> ids = new ArrayList<>();
+            MessagesResponseDTO response;
+            int page = 0;
+            do {
+                response = list.apply(size).apply(page++);
+                assertThat(response.getTotalElements()).isEqualTo(expected.size());
+                response.getData().forEach(message -> ids.add(message.getId()));
+            } while (page < response.getTotalPages());
+
+            assertThat(ids).as("pages of %d", size).isEqualTo(expected);
+        }
+    }
+
+    private static MultipartFile json(String name, String content) {
+        return new MockMultipartFile("files", name, "application/json", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String message(long id, long author, long recipient, LocalDateTime date) {
+        return "{\"id\": " + id + ", \"folder\": 1, \"subject\": \"Message " + id + "\", \"preview\": \"\","
+            + " \"body\": \"Body\", \"files\": 0, \"read\": false, \"replied\": false, \"draft\": false,"
+            + " \"canReply\": true, \"author\": " + user(author) + ","
+            + " \"date\": {\"dateTime\": \"" + date.format(ISO_FORMATTER) + "\"},"
+            + " \"recipients\": [{\"user\": " + user(recipient) + "}]}";
+    }
+
+    private static String user(long userId) {
+        return "{\"userId\": " + userId + ", \"name\": \"User " + userId + "\", \"firstName\": \"User\","
+            + " \"lastName\": \"" + userId + "\", \"displayInitials\": \"U\", \"active\": true,"
+            + " \"type\": \"PARENT\", \"color\": \"#33C4FF\"}";
+    }
+}
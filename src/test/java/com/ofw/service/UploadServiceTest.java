@@ -0,0 +1,94 @@
+package com.ofw.service;
+
+import com.ofw.model.dto.UploadResultDTO;
+import com.ofw.model.entity.UploadSession;
+import com.ofw.repository.UploadSessionRepository;
+import com.ofw.service.upload.UploadInProgressException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.url=jdbc:h2:mem:ofw_upload;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "ofw.upload.lease-ms=60000"
+})
+class UploadServiceTest {
+
+    @Autowired
+    private UploadService uploadService;
+
+    @Autowired
+    private UploadSessionRepository sessionRepository;
+
+    private static MultipartFile[] folders() {
+        return new MultipartFile[] {new MockMultipartFile("files", "folders.json", "application/json",
+            ("{\"systemFolders\": [{\"id\": 1, \"name\": \"Inbox\", \"folderType\": \"INBOX\", \"folderOrder\": 1}],"
+                + " \"userFolders\": []}").getBytes(StandardCharsets.UTF_8))};
+    }
+
+    private UploadSession runningSession(String key, LocalDateTime heartbeatAt) {
+        return sessionRepository.save(UploadSession.builder()
+            .sessionId(UUID.randomUUID().toString())
+            .idempotencyKey(key)
+            .totalFiles(1)
+            .heartbeatAt(heartbeatAt)
+            .build());
+    }
+
+    @Test
+    void runningSessionWithinItsLeaseIsInProgress() {
+        String key = UUID.randomUUID().toString();
+        runningSession(key, LocalDateTime.now());
+
+        assertThatThrownBy(() -> uploadService.uploadDebugData(folders(), null, null, key))
+            .isInstanceOf(UploadInProgressException.class);
+    }
+
+    @Test
+    void expiredSessionIsFailedAndItsKeyRestarted() throws Exception {
+        String key = UUID.randomUUID().toString();
+        UploadSession dead = runningSession(key, LocalDateTime.now().minusMinutes(5));
+
+        UploadResultDTO result = uploadService.uploadDebugData(folders(), null, null, key);
+
+        assertThat(result.getReplayed()).isFalse();
+        assertThat(result.getSessionId()).isNotEqualTo(dead.getSessionId());
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+        UploadSession abandoned = sessionRepository.findBySessionId(dead.getSessionId()).orElseThrow();
+        assertThat(abandoned.getStatus()).isEqualTo("FAILED");
+        assertThat(abandoned.getIdempotencyKey()).isNull();
+
+        // The key now belongs to the new session
+        UploadResultDTO replay = uploadService.uploadDebugData(folders(), null, null, key);
+        assertThat(replay.getReplayed()).isTrue();
+        assertThat(replay.getSessionId()).isEqualTo(result.getSessionId());
+    }
+
+    @Test
+    void sessionFailsWhenAnUploadIsAborted() {
+        String key = UUID.randomUUID().toString();
+        // No file name: fails before the file's own error handling
+        MultipartFile unnamed = mock(MultipartFile.class);
+
+        assertThatThrownBy(() -> uploadService.uploadDebugData(new MultipartFile[] {unnamed}, null, null, key))
+            .isInstanceOf(NullPointerException.class);
+
+        UploadSession session = sessionRepository.findByIdempotencyKey(key).orElseThrow();
+        assertThat(session.getStatus()).isEqualTo("FAILED");
+        assertThat(session.getCompletedAt()).isNotNull();
+    }
+}
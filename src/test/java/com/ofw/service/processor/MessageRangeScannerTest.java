@@ -0,0 +1,201 @@
+package com.ofw.service.processor;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The scanner's ranges, parsed as MessagesFileProcessor parses them, must give the same
+ * messages as its streaming path.
+ */
+class MessageRangeScannerTest {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    /** What MessageRangeScanner found: its ranges and the messages parsed from them. */
+    private record Scan(List<MessageRangeScanner.Range> ranges, List<JsonNode> messages, boolean foundData) {
+    }
+
+    @Test
+    void escapedQuotesAndBackslashesStayInsideStrings() throws IOException {
+        assertSameAsStreaming("{\"data\": ["
+            + "{\"subject\": \"She said \\\"ok\\\"\", \"body\": \"C:\\\\temp\\\\\"},"
+            + "{\"subject\": \"\\\\\\\"\", \"body\": \"\\u0041\\n\\\"}\\\"\"}"
+            + "]}", 1024);
+    }
+
+    @Test
+    void bracketsInsideStringsAreNotStructure() throws IOException {
+        Scan scan = assertSameAsStreaming("{\"data\": ["
+            + "{\"subject\": \"]}, {\\\"id\\\": [\", \"body\": \"}}]]\"},"
+            + "{\"subject\": \"[{\", \"body\": \"{\"}"
+            + "]}", 1024);
+
+        assertThat(scan.messages()).hasSize(2);
+    }
+
+    @Test
+    void otherRootKeysAreSkippedWhateverTheyHold() throws IOException {
+        Scan scan = assertSameAsStreaming("{"
+            + "\"meta\": {\"data\": [{\"id\": 0}]}, "
+            + "\"dat\": [{\"id\": 0}], \"datax\": [{\"id\": 0}], \"d\": \"data\", "
+            + "\"list\": [[{\"id\": 0}], {\"data\": []}], "
+            + "\"data\": [{\"id\": 1, \"data\": [{\"id\": 0}]}, {\"id\": 2}], "
+            + "\"after\": {\"x\": [{}]}, \"tail\": [{\"id\": 0}]"
+            + "}", 1024);
+
+        assertThat(scan.messages()).extracting(message -> message.get("id").asInt()).containsExactly(1, 2);
+    }
+
+    @Test
+    void fileWithoutADataArrayHasNoRanges() throws IOException {
+        Scan scan = scan(bytes("{\"meta\": {\"data\": [{\"id\": 1}]}, \"data\": {\"id\": 2}}"), 1024);
+
+        assertThat(scan.ranges()).isEmpty();
+        assertThat(scan.foundData()).isFalse();
+    }
+
+    @Test
+    void byteOrderMarkIsSkipped() throws IOException {
+        byte[] json = bytes("{\"data\": [{\"id\": 1}, {\"id\": 2}]}");
+        byte[] withMark = new byte[json.length + 3];
+        withMark[0] = (byte) 0xEF;
+        withMark[1] = (byte) 0xBB;
+        withMark[2] = (byte) 0xBF;
+        System.arraycopy(json, 0, withMark, 3, json.length);
+
+        Scan scan = assertSameAsStreaming(withMark, 1024);
+
+        assertThat(scan.messages()).hasSize(2);
+    }
+
+    @Test
+    void elementsSpanningTheBufferBoundary() throws IOException {
+        // Uneven element sizes put element starts, string escapes and closing braces on
+        // both sides of each 64 KB boundary
+        StringBuilder json = new StringBuilder("{\"data\": [");
+        for (int i = 0; i < 3_000; i++) {
+            json.append(i == 0 ? "" : ",")
+                .append("{\"id\": ").append(i)
+                .append(", \"body\": \"").append("x\\\"}".repeat(i % 37)).append("\"")
+                .append(", \"to\": [").append("{\"user\": ").append(i).append("}]}");
+        }
+        byte[] bytes = bytes(json.append("]}").toString());
+        assertThat(bytes.length).isGreaterThan(3 * BUFFER_SIZE);
+
+        Scan scan = assertSameAsStreaming(bytes, 8 * 1024);
+
+        assertThat(scan.messages()).hasSize(3_000);
+        assertThat(scan.ranges()).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void elementLargerThanARangeIsARangeOfItsOwn() throws IOException {
+        String body = "y".repeat(BUFFER_SIZE + 100);
+        Scan scan = assertSameAsStreaming("{\"data\": [{\"id\": 1}, {\"id\": 2, \"body\": \"" + body + "\"},"
+            + " {\"id\": 3}]}", 256);
+
+        // The small first element and the large one close a range; the last one gets its own
+        assertThat(scan.ranges()).extracting(MessageRangeScanner.Range::size).containsExactly(2, 1);
+        assertThat(scan.ranges().get(0).length()).isGreaterThan(BUFFER_SIZE);
+    }
+
+    @Test
+    void nonObjectElementInDataFails() {
+        assertThatThrownBy(() -> scan(bytes("{\"data\": [{\"id\": 1}, 2]}"), 1024))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("expected objects in 'data' array");
+        assertThatThrownBy(() -> scan(bytes("{\"data\": [[{\"id\": 1}]]}"), 1024))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void truncatedFileFails() {
+        assertThatThrownBy(() -> scan(bytes("{\"data\": [{\"id\": 1}, {\"id\""), 1024))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("unexpected end of file");
+    }
+
+    private Scan assertSameAsStreaming(String json, int rangeBytes) throws IOException {
+        return assertSameAsStreaming(bytes(json), rangeBytes);
+    }
+
+    private Scan assertSameAsStreaming(byte[] json, int rangeBytes) throws IOException {
+        Scan scan = scan(json, rangeBytes);
+
+        assertThat(scan.foundData()).isTrue();
+        assertThat(scan.messages()).isEqualTo(streamed(json));
+        return scan;
+    }
+
+    /**
+     * Ranges parsed as MessagesFileProcessor.parse does.
+     */
+    private Scan scan(byte[] json, int rangeBytes) throws IOException {
+        Path file = Files.write(dir.resolve("messages.json"), json);
+        List<MessageRangeScanner.Range> ranges = new ArrayList<>();
+        List<JsonNode> messages = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file)) {
+            MessageRangeScanner scanner = new MessageRangeScanner(channel, rangeBytes);
+            MessageRangeScanner.Range range;
+            while ((range = scanner.next()) != null) {
+                ranges.add(range);
+                ByteBuffer buffer = ByteBuffer.allocate(range.length());
+                while (buffer.hasRemaining()) {
+                    channel.read(buffer, range.start() + buffer.position());
+                }
+                for (int i = 0; i < range.size(); i++) {
+                    messages.add(objectMapper.readTree(buffer.array(), range.starts()[i],
+                        range.ends()[i] - range.starts()[i]));
+                }
+            }
+            return new Scan(ranges, messages, scanner.foundData());
+        }
+    }
+
+    /**
+     * The data array as MessagesFileProcessor's streaming path reads it.
+     */
+    private List<JsonNode> streamed(byte[] json) throws IOException {
+        List<JsonNode> messages = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            assertThat(parser.nextToken()).isEqualTo(JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"data".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    messages.add(objectMapper.readTree(parser));
+                }
+            }
+        }
+        return messages;
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ofw.service.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShardsTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void jumpHashStaysWithinTheBuckets() {
+        for (int buckets = 1; buckets <= 16; buckets++) {
+            for (long key = 0; key < KEYS; key += 97) {
+                assertThat(Shards.jumpHash(key, buckets)).isBetween(0, buckets - 1);
+            }
+        }
+    }
+
+    @Test
+    void jumpHashMatchesTheReferenceImplementation() {
+        // Vectors of the paper's reference implementation: a change here moves families
+        assertThat(Shards.jumpHash(1L, 1)).isZero();
+        assertThat(Shards.jumpHash(42L, 57)).isEqualTo(43);
+        assertThat(Shards.jumpHash(0xDEAD10CCL, 1)).isZero();
+        assertThat(Shards.jumpHash(0xDEAD10CCL, 666)).isEqualTo(361);
+        assertThat(Shards.jumpHash(256L, 1024)).isEqualTo(520);
+        assertThat(Shards.jumpHash(1_011_010L, 8)).isEqualTo(2);
+        assertThat(Shards.jumpHash(1_011_011L, 8)).isEqualTo(1);
+    }
+
+    @Test
+    void addingABucketOnlyMovesKeysToIt() {
+        for (int buckets = 1; buckets < 16; buckets++) {
+            int moved = 0;
+            for (long key = 0; key < KEYS; key++) {
+                int before = Shards.jumpHash(key, buckets);
+                int after = Shards.jumpHash(key, buckets + 1);
+                if (after != before) {
+                    assertThat(after).isEqualTo(buckets);
+                    moved++;
+                }
+            }
+            // About 1/(N+1) of the keys move
+            double expected = (double) KEYS / (buckets + 1);
+            assertThat((double) moved).isBetween(expected * 0.9, expected * 1.1);
+        }
+    }
+
+    @Test
+    void jumpHashSpreadsKeysEvenly() {
+        int buckets = 8;
+        int[] counts = new int[buckets];
+        for (long key = 0; key < KEYS; key++) {
+            counts[Shards.jumpHash(1_011_000L + key, buckets)]++;
+        }
+        for (int count : counts) {
+            assertThat((double) count).isBetween(KEYS / (double) buckets * 0.9, KEYS / (double) buckets * 1.1);
+        }
+    }
+
+    @Test
+    void everyAccountIsOnShardZeroWithoutSharding() {
+        Shards shards = new Shards(Optional.empty());
+
+        assertThat(shards.count()).isEqualTo(1);
+        assertThat(shards.isSharded()).isFalse();
+        assertThat(shards.shardFor(1_011_010L)).isZero();
+    }
+
+    @Test
+    void shardForHashesOverTheConfiguredShards() {
+        ShardRoutingDataSource routing = mock(ShardRoutingDataSource.class);
+        when(routing.size()).thenReturn(4);
+        Shards shards = new Shards(Optional.of(routing));
+
+        assertThat(shards.isSharded()).isTrue();
+        assertThat(shards.shardFor(1_011_010L)).isEqualTo(Shards.jumpHash(1_011_010L, 4));
+    }
+}
@@ -0,0 +1,105 @@
+package com.ofw.service.thread;
+
+import com.ofw.service.MessageService;
+import com.ofw.service.UploadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.url=jdbc:h2:mem:ofw_threads;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "ofw.threads.backfill.initial-delay-ms=3600000"
+})
+class ThreadIndexerTest {
+
+    private static final LocalDateTime LEGACY = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Autowired
+    private UploadService uploadService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private ThreadIndexer threadIndexer;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private void upload(long firstId, String subject) throws Exception {
+        uploadService.uploadDebugData(new MultipartFile[] {
+            json("folders.json", "{\"systemFolders\": [{\"id\": 1, \"name\": \"Inbox\", \"folderType\": \"INBOX\","
+                + " \"folderOrder\": 1}], \"userFolders\": []}"),
+            json("messages.json", "{\"data\": [" + message(firstId, 1, subject, false) + ", "
+                + message(firstId + 1, 2, "Re: " + subject, true) + ", "
+                + message(firstId + 2, 3, "RE: " + subject.toLowerCase(), false) + "]}")
+        }, null, null, null);
+    }
+
+    @Test
+    void backfillThreadsStoredMessagesWithoutChangingThem() throws Exception {
+        upload(9_000_001L, "Pickup");
+        // As stored before the index existed
+        Long stale = jdbc.queryForObject("SELECT thread_id FROM messages WHERE message_id = 9000001", Long.class);
+        jdbc.update("UPDATE messages SET thread_id = NULL, updated_at = ? WHERE thread_id = ?",
+            Timestamp.valueOf(LEGACY), stale);
+        jdbc.update("DELETE FROM message_threads WHERE id = ?", stale);
+
+        threadIndexer.backfill();
+
+        Map<String, Object> thread = jdbc.queryForMap("SELECT * FROM message_threads WHERE subject = 'Pickup'");
+        assertThat(thread.get("message_count")).isEqualTo(3);
+        assertThat(thread.get("unread_count")).isEqualTo(2);
+        List<Map<String, Object>> messages = jdbc.queryForList(
+            "SELECT thread_id, updated_at FROM messages WHERE message_id BETWEEN 9000001 AND 9000003");
+        assertThat(messages).hasSize(3).allSatisfy(message -> {
+            assertThat(message.get("thread_id")).isEqualTo(thread.get("id"));
+            assertThat(message.get("updated_at")).isEqualTo(Timestamp.valueOf(LEGACY));
+        });
+    }
+
+    @Test
+    void readChangesKeepTheUnreadCountCurrent() throws Exception {
+        upload(9_000_011L, "Dropoff");
+
+        messageService.markAsRead(9_000_011L);
+        messageService.markAsRead(9_000_011L);
+        messageService.markAsUnread(9_000_012L);
+
+        assertThat(jdbc.queryForObject("SELECT unread_count FROM message_threads WHERE subject = 'Dropoff'",
+            Integer.class)).isEqualTo(2);
+    }
+
+    private static MultipartFile json(String name, String content) {
+        return new MockMultipartFile("files", name, "application/json", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String message(long id, int day, String subject, boolean read) {
+        return "{\"id\": " + id + ", \"folder\": 1, \"subject\": \"" + subject + "\", \"preview\": \"\","
+            + " \"body\": \"Body " + id + "\", \"files\": 0, \"read\": " + read + ", \"replied\": false,"
+            + " \"draft\": false, \"canReply\": true, \"author\": " + user(8_000_001) + ","
+            + " \"date\": {\"dateTime\": \"2024-03-0" + day + "T09:00:00\"},"
+            + " \"recipients\": [{\"user\": " + user(8_000_002) + "}]}";
+    }
+
+    private static String user(long userId) {
+        return "{\"userId\": " + userId + ", \"name\": \"User " + userId + "\", \"firstName\": \"User\","
+            + " \"lastName\": \"" + userId + "\", \"displayInitials\": \"U\", \"active\": true,"
+            + " \"type\": \"PARENT\", \"color\": \"#33C4FF\"}";
+    }
+}